@@ -0,0 +1,104 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/** A growable sequence of vertex numbers held in a primitive array,
+ *  used by GraphObj for the successors and predecessors of a vertex.
+ *  Vertices keep the order in which they were added.
+ *  @author tapan.jasthi
+ */
+class AdjacencyList {
+
+    /** An empty list. */
+    AdjacencyList() {
+        items = EMPTY;
+    }
+
+    /** Returns the number of vertices in me. */
+    int size() {
+        return size;
+    }
+
+    /** Returns vertex K, numbering from 0.  Assumes 0 <= K < size(). */
+    int get(int k) {
+        return items[k];
+    }
+
+    /** Append V. */
+    void add(int v) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, Math.max(MIN_LENGTH, 2 * size));
+        }
+        items[size] = v;
+        size += 1;
+    }
+
+    /** Remove the first occurrence of V, if any, keeping the order of the
+     *  remaining vertices.  Returns true iff V was present. */
+    boolean remove(int v) {
+        for (int k = 0; k < size; k += 1) {
+            if (items[k] == v) {
+                System.arraycopy(items, k + 1, items, k, size - k - 1);
+                size -= 1;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Remove all vertices satisfying FILTER, keeping the order of the
+     *  rest. */
+    void removeIf(IntPredicate filter) {
+        int n;
+        n = 0;
+        for (int k = 0; k < size; k += 1) {
+            if (!filter.test(items[k])) {
+                items[n] = items[k];
+                n += 1;
+            }
+        }
+        size = n;
+    }
+
+    /** Apply ACTION to each of my vertices, in order. */
+    void forEach(IntConsumer action) {
+        for (int k = 0; k < size; k += 1) {
+            action.accept(items[k]);
+        }
+    }
+
+    /** Returns an Iteration over my vertices, in order. */
+    Iteration<Integer> iteration() {
+        return new Iteration<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return k < size;
+            }
+
+            @Override
+            public Integer next() {
+                if (k >= size) {
+                    throw new NoSuchElementException();
+                }
+                k += 1;
+                return items[k - 1];
+            }
+
+            /** Index of the next vertex to deliver. */
+            private int k;
+        };
+    }
+
+    /** Shared contents of all lists that have never had a vertex. */
+    private static final int[] EMPTY = new int[0];
+    /** Length of my first non-empty array. */
+    private static final int MIN_LENGTH = 4;
+
+    /** My vertices, in positions 0 .. size-1. */
+    private int[] items;
+    /** Number of vertices in me. */
+    private int size;
+}
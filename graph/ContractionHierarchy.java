@@ -0,0 +1,574 @@
+package graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** A contraction hierarchy over an edge-weighted graph, for answering
+ *  many point-to-point shortest-path queries on a graph that does not
+ *  change.  As for ShortestPaths, the client supplies edge weights by
+ *  overriding getWeight(U, V).
+ *
+ *  The method contract preprocesses the graph once: it removes
+ *  ("contracts") the vertices one at a time in order of importance,
+ *  adding a shortcut edge (U, W) around each contracted vertex V
+ *  whenever U-V-W is the only shortest path from U to W among the
+ *  vertices that remain.  Each vertex then gets a rank, its position in
+ *  that order.  A query searches upward in rank from both ends of the
+ *  path, which explores only a small part of the graph, and then
+ *  replaces each shortcut on the path found by the two edges it stands
+ *  for, so that paths are reported in terms of the edges of the
+ *  original graph.
+ *
+ *  Queries are made through Query objects.  Once contract has
+ *  returned, the hierarchy is not modified, so that any number of
+ *  threads may make queries at once, provided each uses its own Query.
+ *  The hierarchy does not follow later changes to the graph.
+ *  @author tapan.jasthi
+ */
+public abstract class ContractionHierarchy {
+
+    /** A contraction hierarchy for G, which must be contracted before
+     *  use. */
+    public ContractionHierarchy(Graph G) {
+        _G = G;
+    }
+
+    /** Returns the graph I was created for. */
+    public Graph getGraph() {
+        return _G;
+    }
+
+    /** Returns the weight of edge (U, V) of the graph. */
+    protected abstract double getWeight(int u, int v);
+
+    /** Returns true iff contract has been called. */
+    public boolean isContracted() {
+        return _rank != null;
+    }
+
+    /** Build the hierarchy from the current contents of the graph.  Must
+     *  be called, once, before any queries are made. */
+    public void contract() {
+        int n = _G.maxVertex();
+        _out = new ArcList[n + 1];
+        _in = new ArcList[n + 1];
+        for (int v : _G.vertices()) {
+            _out[v] = new ArcList();
+            _in[v] = new ArcList();
+        }
+        for (int u : _G.vertices()) {
+            final int from = u;
+            _G.forEachSuccessor(u, v -> {
+                if (v != from) {
+                    double w = getWeight(from, v);
+                    _out[from].put(v, w, 0);
+                    _in[v].put(from, w, 0);
+                }
+            });
+        }
+
+        _scratch = new ShortestPathsWorkspace(_G);
+        _targetMark = new int[n + 1];
+        int[] rank = new int[n + 1];
+        int[] deleted = new int[n + 1];
+        int[] level = new int[n + 1];
+        VertexHeap order = new VertexHeap(n);
+        for (int v : _G.vertices()) {
+            order.put(v, priority(v, deleted, level));
+        }
+        int r;
+        r = 0;
+        while (!order.isEmpty()) {
+            int v = order.removeMin();
+            double p = priority(v, deleted, level);
+            if (!order.isEmpty() && p > order.minKey()) {
+                order.put(v, p);
+                continue;
+            }
+            contractVertex(v, false, CONTRACT_LIMIT);
+            r += 1;
+            rank[v] = r;
+            for (int k = 0; k < _out[v].size; k += 1) {
+                _in[_out[v].to[k]].remove(v);
+            }
+            for (int k = 0; k < _in[v].size; k += 1) {
+                _out[_in[v].to[k]].remove(v);
+            }
+            for (ArcList arcs : new ArcList[] { _out[v], _in[v] }) {
+                for (int k = 0; k < arcs.size; k += 1) {
+                    int u = arcs.to[k];
+                    deleted[u] += 1;
+                    level[u] = Math.max(level[u], level[v] + 1);
+                    order.put(u, priority(u, deleted, level));
+                }
+            }
+        }
+        _scratch = null;
+        _targetMark = null;
+
+        _upStart = new int[n + 2];
+        _downStart = new int[n + 2];
+        for (int v = 1; v <= n; v += 1) {
+            _upStart[v + 1] = _upStart[v] + countHigher(_out[v], rank, v);
+            _downStart[v + 1] =
+                _downStart[v] + countHigher(_in[v], rank, v);
+        }
+        _upTarget = new int[_upStart[n + 1]];
+        _upWeight = new double[_upTarget.length];
+        _upMiddle = new int[_upTarget.length];
+        _downSource = new int[_downStart[n + 1]];
+        _downWeight = new double[_downSource.length];
+        _downMiddle = new int[_downSource.length];
+        for (int v = 1; v <= n; v += 1) {
+            copyHigher(_out[v], rank, v, _upStart[v],
+                       _upTarget, _upWeight, _upMiddle);
+            copyHigher(_in[v], rank, v, _downStart[v],
+                       _downSource, _downWeight, _downMiddle);
+        }
+        _out = _in = null;
+        _rank = rank;
+    }
+
+    /** Returns the number of shortcut edges added by contract. */
+    public int shortcutCount() {
+        int n;
+        n = 0;
+        for (int m : _upMiddle) {
+            n += m == 0 ? 0 : 1;
+        }
+        for (int m : _downMiddle) {
+            n += m == 0 ? 0 : 1;
+        }
+        return n;
+    }
+
+    /** Returns the priority of uncontracted vertex V for contraction,
+     *  given the number of DELETED (contracted) neighbors of each vertex
+     *  and the LEVEL of each: one more than the largest level of a
+     *  contracted neighbor.  Vertices whose contraction adds fewer
+     *  shortcuts than it removes arcs, that have had few neighbors
+     *  contracted, and that are low in the hierarchy come first, which
+     *  spreads contraction evenly over the graph. */
+    private double priority(int v, int[] deleted, int[] level) {
+        int shortcuts = contractVertex(v, true, SIMULATE_LIMIT);
+        int arcs = _out[v].size + _in[v].size;
+        return shortcuts - arcs + deleted[v] + level[v];
+    }
+
+    /** Find the shortcuts needed to contract V, and return their number.
+     *  Add them to the overlay graph unless SIMULATE.  Witness searches
+     *  settle at most LIMIT vertices each. */
+    private int contractVertex(int v, boolean simulate, int limit) {
+        ArcList ins = _in[v], outs = _out[v];
+        int count;
+        count = 0;
+        for (int i = 0; i < ins.size; i += 1) {
+            int u = ins.to[i];
+            double maxNeed = 0.0;
+            for (int j = 0; j < outs.size; j += 1) {
+                int w = outs.to[j];
+                if (w != u) {
+                    maxNeed = Math.max(maxNeed,
+                                       ins.weight[i] + outs.weight[j]);
+                }
+            }
+            witnessSearch(u, v, outs, maxNeed, limit);
+            for (int j = 0; j < outs.size; j += 1) {
+                int w = outs.to[j];
+                double need = ins.weight[i] + outs.weight[j];
+                if (w == u || _scratch.getWeight(w) <= need) {
+                    continue;
+                }
+                count += 1;
+                if (!simulate) {
+                    _out[u].put(w, need, v);
+                    _in[w].put(u, need, v);
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Search the uncontracted vertices other than V from U for paths
+     *  of length up to MAXLENGTH to the heads of TARGETS, settling at
+     *  most LIMIT vertices, and stopping once all the heads are settled.
+     *  Leaves the lengths found in _scratch. */
+    private void witnessSearch(int u, int v, ArcList targets,
+                               double maxLength, int limit) {
+        ShortestPathsWorkspace ws = _scratch;
+        VertexHeap heap = ws.heap();
+        ws.reset();
+        _targetStamp += 1;
+        int remaining;
+        remaining = 0;
+        for (int k = 0; k < targets.size; k += 1) {
+            if (targets.to[k] != u) {
+                _targetMark[targets.to[k]] = _targetStamp;
+                remaining += 1;
+            }
+        }
+        ws.setWeight(u, 0.0);
+        heap.put(u, 0.0);
+        for (int settled = 0;
+             settled < limit && remaining > 0 && !heap.isEmpty();
+             settled += 1) {
+            if (heap.minKey() > maxLength) {
+                break;
+            }
+            int x = heap.removeMin();
+            ws.settle(x);
+            if (_targetMark[x] == _targetStamp) {
+                remaining -= 1;
+            }
+            ArcList arcs = _out[x];
+            for (int k = 0; k < arcs.size; k += 1) {
+                int y = arcs.to[k];
+                if (y == v || ws.isSettled(y)) {
+                    continue;
+                }
+                double d = ws.getWeight(x) + arcs.weight[k];
+                if (d < ws.getWeight(y)) {
+                    ws.setWeight(y, d);
+                    heap.put(y, d);
+                }
+            }
+        }
+    }
+
+    /** Returns the number of arcs in ARCS (null for a missing vertex) to
+     *  vertices of higher RANK than V. */
+    private static int countHigher(ArcList arcs, int[] rank, int v) {
+        int n;
+        n = 0;
+        for (int k = 0; arcs != null && k < arcs.size; k += 1) {
+            n += rank[arcs.to[k]] > rank[v] ? 1 : 0;
+        }
+        return n;
+    }
+
+    /** Copy the arcs in ARCS (null for a missing vertex) to vertices of
+     *  higher RANK than V into TO, WEIGHT, and MIDDLE, starting at
+     *  index START. */
+    private static void copyHigher(ArcList arcs, int[] rank, int v,
+                                   int start, int[] to, double[] weight,
+                                   int[] middle) {
+        for (int k = 0; arcs != null && k < arcs.size; k += 1) {
+            if (rank[arcs.to[k]] > rank[v]) {
+                to[start] = arcs.to[k];
+                weight[start] = arcs.weight[k];
+                middle[start] = arcs.middle[k];
+                start += 1;
+            }
+        }
+    }
+
+    /** Returns the vertex bypassed by the arc from U to W of the
+     *  hierarchy, or 0 if it is an edge of the graph. */
+    private int middle(int u, int w) {
+        if (_rank[w] > _rank[u]) {
+            for (int k = _upStart[u]; k < _upStart[u + 1]; k += 1) {
+                if (_upTarget[k] == w) {
+                    return _upMiddle[k];
+                }
+            }
+        } else {
+            for (int k = _downStart[w]; k < _downStart[w + 1]; k += 1) {
+                if (_downSource[k] == u) {
+                    return _downMiddle[k];
+                }
+            }
+        }
+        throw new IllegalStateException("missing arc");
+    }
+
+    /** A point-to-point query against a contracted hierarchy.  A Query
+     *  holds the state of one search at a time, and may be reused for
+     *  any number of searches by one thread. */
+    public class Query {
+
+        /** A new query.  The hierarchy must be contracted. */
+        public Query() {
+            if (!isContracted()) {
+                throw new IllegalStateException("hierarchy not contracted");
+            }
+            _forward = new ShortestPathsWorkspace(_G);
+            _backward = _forward.reverse();
+        }
+
+        /** Find a shortest path from SOURCE to DEST, after which
+         *  getWeight and pathTo describe it. */
+        public void setPaths(int source, int dest) {
+            _length = 0;
+            _weight = Double.POSITIVE_INFINITY;
+            _forward.reset();
+            if (!_G.contains(source) || !_G.contains(dest)) {
+                return;
+            }
+            VertexHeap fwd = _forward.heap(), back = _backward.heap();
+            _forward.setWeight(source, 0.0);
+            fwd.put(source, 0.0);
+            _backward.setWeight(dest, 0.0);
+            back.put(dest, 0.0);
+            int meet;
+            meet = 0;
+            while (true) {
+                boolean goForward =
+                    !fwd.isEmpty() && fwd.minKey() < _weight;
+                boolean goBackward =
+                    !back.isEmpty() && back.minKey() < _weight;
+                if (goForward && goBackward) {
+                    goForward = fwd.minKey() <= back.minKey();
+                } else if (!goForward && !goBackward) {
+                    break;
+                }
+                int x;
+                if (goForward) {
+                    x = fwd.removeMin();
+                    _forward.settle(x);
+                    relax(_forward, x, _upStart, _upTarget, _upWeight);
+                } else {
+                    x = back.removeMin();
+                    _backward.settle(x);
+                    relax(_backward, x,
+                          _downStart, _downSource, _downWeight);
+                }
+                double d = _forward.getWeight(x) + _backward.getWeight(x);
+                if (d < _weight) {
+                    _weight = d;
+                    meet = x;
+                }
+            }
+            if (meet != 0) {
+                unpackPath(source, meet);
+            }
+        }
+
+        /** Returns the length of the path found by the last search, or
+         *  infinity if there was none. */
+        public double getWeight() {
+            return _weight;
+        }
+
+        /** Returns the number of vertices settled by the last search,
+         *  in both directions. */
+        public int settledCount() {
+            return _forward.settledCount();
+        }
+
+        /** Store the vertices of the path found by the last search in
+         *  BUF[0 .. n-1], where n is the number of vertices on the
+         *  path (0 if there is none), and return n.  If BUF is shorter
+         *  than n, leaves it unchanged.  Shortcuts are replaced by the
+         *  edges of the graph they stand for. */
+        public int pathTo(int[] buf) {
+            if (_length <= buf.length) {
+                System.arraycopy(_path, 0, buf, 0, _length);
+            }
+            return _length;
+        }
+
+        /** Returns the vertices of the path found by the last search,
+         *  from its source to its destination, or an empty list if
+         *  there is none. */
+        public List<Integer> pathTo() {
+            List<Integer> result = new ArrayList<>(_length);
+            for (int i = 0; i < _length; i += 1) {
+                result.add(_path[i]);
+            }
+            return result;
+        }
+
+        /** Relax the arcs of the hierarchy in the rows of START, NBR, and
+         *  WEIGHT for vertex X, in the search whose state is in WS. */
+        private void relax(ShortestPathsWorkspace ws, int x, int[] start,
+                           int[] nbr, double[] weight) {
+            double dx = ws.getWeight(x);
+            for (int k = start[x]; k < start[x + 1]; k += 1) {
+                int y = nbr[k];
+                double d = dx + weight[k];
+                if (!ws.isSettled(y) && d < ws.getWeight(y)) {
+                    ws.setWeight(y, d);
+                    ws.setPredecessor(y, x);
+                    ws.heap().put(y, d);
+                }
+            }
+        }
+
+        /** Fill _path with the path from SOURCE through MEET to the
+         *  destination, following the predecessors of the forward
+         *  search back from MEET and those of the backward search
+         *  onward from it, and unpacking shortcuts. */
+        private void unpackPath(int source, int meet) {
+            _stackSize = 0;
+            for (int x = meet; x != source;
+                 x = _forward.getPredecessor(x)) {
+                push(x);
+            }
+            _hopCount = 0;
+            _hops = append(_hops, _hopCount, source);
+            _hopCount += 1;
+            while (_stackSize > 0) {
+                _stackSize -= 1;
+                _hops = append(_hops, _hopCount, _stack[_stackSize]);
+                _hopCount += 1;
+            }
+            for (int x = _backward.getPredecessor(meet); x != 0;
+                 x = _backward.getPredecessor(x)) {
+                _hops = append(_hops, _hopCount, x);
+                _hopCount += 1;
+            }
+
+            _path = append(_path, 0, source);
+            _length = 1;
+            for (int i = 1; i < _hopCount; i += 1) {
+                unpackArc(_hops[i - 1], _hops[i]);
+            }
+        }
+
+        /** Append to _path the vertices after U on the path in the graph
+         *  that the arc of the hierarchy from U to W stands for. */
+        private void unpackArc(int u, int w) {
+            int base = _stackSize;
+            push(u);
+            push(w);
+            while (_stackSize > base) {
+                int b = _stack[_stackSize - 1], a = _stack[_stackSize - 2];
+                _stackSize -= 2;
+                int m = middle(a, b);
+                if (m == 0) {
+                    _path = append(_path, _length, b);
+                    _length += 1;
+                } else {
+                    push(m);
+                    push(b);
+                    push(a);
+                    push(m);
+                }
+            }
+        }
+
+        /** Push X on _stack. */
+        private void push(int x) {
+            _stack = append(_stack, _stackSize, x);
+            _stackSize += 1;
+        }
+
+        /** The forward and backward searches. */
+        private final ShortestPathsWorkspace _forward, _backward;
+        /** Length of the last path found. */
+        private double _weight;
+        /** The last path found is _path[0 .. _length-1]. */
+        private int[] _path = new int[INITIAL_LENGTH];
+        /** See _path. */
+        private int _length;
+        /** The vertices of the last path found, before unpacking, are
+         *  _hops[0 .. _hopCount-1]. */
+        private int[] _hops = new int[INITIAL_LENGTH];
+        /** See _hops. */
+        private int _hopCount;
+        /** Work stack, in _stack[0 .. _stackSize-1]. */
+        private int[] _stack = new int[INITIAL_LENGTH];
+        /** See _stack. */
+        private int _stackSize;
+    }
+
+    /** Store X in A[N], where A has at least N elements, and return A,
+     *  or a longer copy of A if it has exactly N. */
+    private static int[] append(int[] a, int n, int x) {
+        if (n == a.length) {
+            a = Arrays.copyOf(a, Math.max(2 * n, INITIAL_LENGTH));
+        }
+        a[n] = x;
+        return a;
+    }
+
+    /** The arcs leaving or entering one vertex during contraction, with
+     *  at most one arc per neighbor. */
+    private static class ArcList {
+        /** Make the arc to TO0 have weight WEIGHT0 and bypass MIDDLE0 (0
+         *  for an edge of the graph), unless there is already an arc to
+         *  TO0 that is no heavier. */
+        void put(int to0, double weight0, int middle0) {
+            for (int k = 0; k < size; k += 1) {
+                if (to[k] == to0) {
+                    if (weight0 < weight[k]) {
+                        weight[k] = weight0;
+                        middle[k] = middle0;
+                    }
+                    return;
+                }
+            }
+            if (size == to.length) {
+                int n = Math.max(2 * size, INITIAL_LENGTH);
+                to = Arrays.copyOf(to, n);
+                weight = Arrays.copyOf(weight, n);
+                middle = Arrays.copyOf(middle, n);
+            }
+            to[size] = to0;
+            weight[size] = weight0;
+            middle[size] = middle0;
+            size += 1;
+        }
+
+        /** Remove the arc to TO0, if there is one.  Does not preserve the
+         *  order of the other arcs. */
+        void remove(int to0) {
+            for (int k = 0; k < size; k += 1) {
+                if (to[k] == to0) {
+                    size -= 1;
+                    to[k] = to[size];
+                    weight[k] = weight[size];
+                    middle[k] = middle[size];
+                    return;
+                }
+            }
+        }
+
+        /** Neighbor, weight, and bypassed vertex of arc K, for K from 0
+         *  to size-1. */
+        private int[] to = new int[0], middle = new int[0];
+        /** See to. */
+        private double[] weight = new double[0];
+        /** Number of arcs. */
+        private int size;
+    }
+
+    /** Maximum number of vertices settled by a witness search when
+     *  estimating the cost of contracting a vertex, and when actually
+     *  contracting it.  Failing to find a witness only adds an
+     *  unnecessary shortcut. */
+    private static final int SIMULATE_LIMIT = 16, CONTRACT_LIMIT = 500;
+    /** Initial length of growable arrays. */
+    private static final int INITIAL_LENGTH = 8;
+
+    /** The graph. */
+    private final Graph _G;
+    /** Indexed by vertex number: the vertex's position in the order of
+     *  contraction, from 1, or 0 if there is no such vertex.  Null until
+     *  contracted. */
+    private int[] _rank;
+    /** The arcs out of and into each vertex while contracting.  Arcs
+     *  to contracted vertices are removed from the lists of the vertices
+     *  that remain, so that once V is contracted, _out[V] and _in[V]
+     *  hold exactly its arcs to and from vertices of higher rank. */
+    private ArcList[] _out, _in;
+    /** Scratch space for witness searches while contracting. */
+    private ShortestPathsWorkspace _scratch;
+    /** Indexed by vertex number: equal to _targetStamp iff the vertex is
+     *  a target of the current witness search. */
+    private int[] _targetMark;
+    /** The number of the current witness search. */
+    private int _targetStamp;
+    /** The arcs from v to vertices of higher rank are those with indices
+     *  _upStart[v] .. _upStart[v + 1] - 1 of _upTarget (their heads),
+     *  _upWeight, and _upMiddle (the vertices they bypass, or 0). */
+    private int[] _upStart, _upTarget, _upMiddle;
+    /** See _upStart. */
+    private double[] _upWeight;
+    /** The arcs into v from vertices of higher rank, laid out as for
+     *  _upStart, with _downSource giving their tails. */
+    private int[] _downStart, _downSource, _downMiddle;
+    /** See _downStart. */
+    private double[] _downWeight;
+}
@@ -0,0 +1,372 @@
+package graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/** An immutable graph in compressed-sparse-row form, for graphs that
+ *  are queried heavily once they have been built.  The successors of
+ *  each vertex occupy a contiguous range of one int array (and, for
+ *  directed graphs, the predecessors a range of another), so neighbor
+ *  scans are sequential reads.  A CsrGraph is created from an existing
+ *  graph by CsrGraph.of, and reproduces its vertex numbers, successor
+ *  and predecessor orders, and edge order.  Its edge ids are the
+ *  positions (from 1) of the edges in that order.  All operations that
+ *  would modify it throw UnsupportedOperationException.
+ *
+ *  Since a CsrGraph never changes, it may be read by any number of
+ *  threads at once.
+ *  @author tapan.jasthi
+ */
+public final class CsrGraph extends Graph {
+
+    /** Returns an immutable copy of G. */
+    public static CsrGraph of(Graph G) {
+        return new CsrGraph(G);
+    }
+
+    /** Returns an immutable directed graph with vertices 1 .. N, where
+     *  N is START.length - 2, in which the successors of each vertex v
+     *  are TARGET[START[v] .. START[v + 1] - 1], in that order.  START[1]
+     *  must be 0.  Its edges are ordered by source vertex and then by
+     *  position among the successors.  The arrays become part of the
+     *  graph, and must not be modified afterwards. */
+    public static CsrGraph fromRows(int[] start, int[] target) {
+        return new CsrGraph(start, target);
+    }
+
+    /** An immutable copy of G. */
+    private CsrGraph(Graph G) {
+        _directed = G.isDirected();
+        _maxVertex = G.maxVertex();
+        _present = new boolean[_maxVertex + 1];
+        for (int v : G.vertices()) {
+            _present[v] = true;
+            _vertexCount += 1;
+        }
+
+        _edgeSize = G.edgeSize();
+        _edgeFrom = new int[_edgeSize];
+        _edgeTo = new int[_edgeSize];
+        _index = new EdgeIndex(_edgeSize);
+        int id;
+        id = 0;
+        for (int[] e : G.edges()) {
+            _edgeFrom[id] = e[0];
+            _edgeTo[id] = e[1];
+            id += 1;
+            _index.put(key(e[0], e[1]), id);
+        }
+
+        _outStart = new int[_maxVertex + 2];
+        _outTarget = new int[countEntries(G, _outStart, true)];
+        fillRows(G, _outStart, _outTarget, true);
+        if (_directed) {
+            _inStart = new int[_maxVertex + 2];
+            _inSource = new int[countEntries(G, _inStart, false)];
+            fillRows(G, _inStart, _inSource, false);
+        } else {
+            _inStart = _outStart;
+            _inSource = _outTarget;
+        }
+    }
+
+    /** The directed graph with successor rows START and TARGET, as
+     *  described for fromRows. */
+    private CsrGraph(int[] start, int[] target) {
+        _directed = true;
+        _maxVertex = start.length - 2;
+        _present = new boolean[_maxVertex + 1];
+        Arrays.fill(_present, 1, _maxVertex + 1, true);
+        _vertexCount = _maxVertex;
+        _outStart = start;
+        _outTarget = target;
+
+        _edgeSize = start[_maxVertex + 1];
+        _edgeFrom = new int[_edgeSize];
+        _edgeTo = target;
+        _index = new EdgeIndex(_edgeSize);
+        _inStart = new int[_maxVertex + 2];
+        for (int v = 1; v <= _maxVertex; v += 1) {
+            for (int i = start[v]; i < start[v + 1]; i += 1) {
+                _edgeFrom[i] = v;
+                _index.put(key(v, target[i]), i + 1);
+                _inStart[target[i] + 1] += 1;
+            }
+        }
+        for (int v = 1; v <= _maxVertex; v += 1) {
+            _inStart[v + 1] += _inStart[v];
+        }
+        _inSource = new int[_edgeSize];
+        int[] next = Arrays.copyOf(_inStart, _maxVertex + 1);
+        for (int i = 0; i < _edgeSize; i += 1) {
+            _inSource[next[target[i]]] = _edgeFrom[i];
+            next[target[i]] += 1;
+        }
+    }
+
+    /** Set START[v] to the index of the first entry of vertex v's row,
+     *  for v from 1 to maxVertex() + 1, given that rows are filled from
+     *  the successors of G (if OUT) or its predecessors.  Returns the
+     *  total number of entries. */
+    private int countEntries(Graph G, int[] start, boolean out) {
+        int n;
+        n = 0;
+        for (int v = 1; v <= _maxVertex; v += 1) {
+            start[v] = n;
+            if (_present[v]) {
+                n += out ? G.outDegree(v) : G.inDegree(v);
+            }
+        }
+        start[_maxVertex + 1] = n;
+        return n;
+    }
+
+    /** Fill the rows of NEIGHBORS delimited by START with the
+     *  successors of each vertex of G (if OUT) or its predecessors, in
+     *  G's order. */
+    private void fillRows(Graph G, int[] start, int[] neighbors,
+                          boolean out) {
+        for (int v = 1; v <= _maxVertex; v += 1) {
+            for (int k = 0; k < start[v + 1] - start[v]; k += 1) {
+                neighbors[start[v] + k] =
+                    out ? G.successor(v, k) : G.predecessor(v, k);
+            }
+        }
+    }
+
+    @Override
+    public int vertexSize() {
+        return _vertexCount;
+    }
+
+    @Override
+    public int maxVertex() {
+        return _maxVertex;
+    }
+
+    @Override
+    public int edgeSize() {
+        return _edgeSize;
+    }
+
+    @Override
+    public boolean isDirected() {
+        return _directed;
+    }
+
+    @Override
+    public int outDegree(int v) {
+        return contains(v) ? _outStart[v + 1] - _outStart[v] : 0;
+    }
+
+    @Override
+    public int inDegree(int v) {
+        return contains(v) ? _inStart[v + 1] - _inStart[v] : 0;
+    }
+
+    @Override
+    public boolean contains(int u) {
+        return u > 0 && u <= _maxVertex && _present[u];
+    }
+
+    @Override
+    public boolean contains(int u, int v) {
+        return edgeId(u, v) != 0;
+    }
+
+    @Override
+    public int add() {
+        throw immutable();
+    }
+
+    @Override
+    public int add(int u, int v) {
+        throw immutable();
+    }
+
+    @Override
+    public void remove(int v) {
+        throw immutable();
+    }
+
+    @Override
+    public void remove(int u, int v) {
+        throw immutable();
+    }
+
+    @Override
+    public Iteration<Integer> vertices() {
+        return new Iteration<Integer>() {
+            @Override
+            public boolean hasNext() {
+                while (v <= _maxVertex && !_present[v]) {
+                    v += 1;
+                }
+                return v <= _maxVertex;
+            }
+
+            @Override
+            public Integer next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                v += 1;
+                return v - 1;
+            }
+
+            /** The next vertex number to examine. */
+            private int v = 1;
+        };
+    }
+
+    @Override
+    public int successor(int v, int k) {
+        if (k >= 0 && k < outDegree(v)) {
+            return _outTarget[_outStart[v] + k];
+        }
+        return 0;
+    }
+
+    @Override
+    public int predecessor(int v, int k) {
+        if (k >= 0 && k < inDegree(v)) {
+            return _inSource[_inStart[v] + k];
+        }
+        return 0;
+    }
+
+    @Override
+    public Iteration<Integer> successors(int v) {
+        if (!contains(v)) {
+            return new RowIteration(_outTarget, 0, 0);
+        }
+        return new RowIteration(_outTarget, _outStart[v], _outStart[v + 1]);
+    }
+
+    @Override
+    public Iteration<Integer> predecessors(int v) {
+        if (!contains(v)) {
+            return new RowIteration(_inSource, 0, 0);
+        }
+        return new RowIteration(_inSource, _inStart[v], _inStart[v + 1]);
+    }
+
+    @Override
+    public void forEachSuccessor(int v, IntConsumer action) {
+        if (contains(v)) {
+            for (int i = _outStart[v], end = _outStart[v + 1]; i < end;
+                 i += 1) {
+                action.accept(_outTarget[i]);
+            }
+        }
+    }
+
+    @Override
+    public void forEachPredecessor(int v, IntConsumer action) {
+        if (contains(v)) {
+            for (int i = _inStart[v], end = _inStart[v + 1]; i < end;
+                 i += 1) {
+                action.accept(_inSource[i]);
+            }
+        }
+    }
+
+    @Override
+    public Iteration<int[]> edges() {
+        return new Iteration<int[]>() {
+            @Override
+            public boolean hasNext() {
+                return k < _edgeSize;
+            }
+
+            @Override
+            public int[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int[] edge = { _edgeFrom[k], _edgeTo[k] };
+                k += 1;
+                return edge;
+            }
+
+            /** Index of the next edge to deliver. */
+            private int k;
+        };
+    }
+
+    @Override
+    protected int edgeId(int u, int v) {
+        if (!contains(u) || !contains(v)) {
+            return 0;
+        }
+        int id = _index.get(key(u, v));
+        return id == EdgeIndex.ABSENT ? 0 : id;
+    }
+
+    /** Returns the key under which edge (U, V) is entered in _index,
+     *  packed as in GraphObj.edgeKey. */
+    private long key(int u, int v) {
+        if (!_directed && u > v) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        return ((long) u << Integer.SIZE) | (v & 0xffffffffL);
+    }
+
+    /** Returns the exception thrown by attempts to modify me. */
+    private static UnsupportedOperationException immutable() {
+        return new UnsupportedOperationException("graph is immutable");
+    }
+
+    /** An Iteration over the entries of a row of a CSR array. */
+    private static class RowIteration extends Iteration<Integer> {
+        /** An iteration over ITEMS[FROM .. TO-1]. */
+        RowIteration(int[] items, int from, int to) {
+            _items = items;
+            _next = from;
+            _end = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _next < _end;
+        }
+
+        @Override
+        public Integer next() {
+            if (_next >= _end) {
+                throw new NoSuchElementException();
+            }
+            _next += 1;
+            return _items[_next - 1];
+        }
+
+        /** The row's array. */
+        private final int[] _items;
+        /** Index of the next entry to deliver, and the end of the row. */
+        private int _next, _end;
+    }
+
+    /** True iff I am directed. */
+    private final boolean _directed;
+    /** My largest vertex number. */
+    private final int _maxVertex;
+    /** Number of vertices. */
+    private int _vertexCount;
+    /** _present[v] is true iff v is one of my vertices. */
+    private final boolean[] _present;
+    /** Number of edges. */
+    private final int _edgeSize;
+    /** The end points of edge id k+1 are _edgeFrom[k] and _edgeTo[k]. */
+    private final int[] _edgeFrom, _edgeTo;
+    /** Mapping of packed end points (see key) to edge ids. */
+    private final EdgeIndex _index;
+    /** The successors of v are _outTarget[_outStart[v] ..
+     *  _outStart[v + 1] - 1]. */
+    private final int[] _outStart, _outTarget;
+    /** The predecessors of v, laid out as for successors.  For undirected
+     *  graphs, these are the same arrays as for successors. */
+    private final int[] _inStart, _inSource;
+}
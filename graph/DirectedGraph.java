@@ -1,5 +1,6 @@
 package graph;
-import java.util.ArrayList;
+
+import java.util.function.IntConsumer;
 
 /**
  * Represents a general unlabeled directed graph whose vertices are denoted by
@@ -9,6 +10,16 @@ import java.util.ArrayList;
  */
 public class DirectedGraph extends GraphObj {
 
+    /** An empty directed graph. */
+    public DirectedGraph() {
+    }
+
+    /** An empty directed graph with room for VERTICES vertices and EDGES
+     *  edges before its tables must grow. */
+    public DirectedGraph(int vertices, int edges) {
+        super(vertices, edges);
+    }
+
     @Override
     public boolean isDirected() {
         return true;
@@ -25,25 +36,29 @@ public class DirectedGraph extends GraphObj {
 
     @Override
     public int predecessor(int v, int k) {
-        if (!contains(v)) {
-            return 0;
+        Vertex x = getVertex(v);
+        if (x != null && k >= 0 && k < x.getParents().size()) {
+            return x.getParents().get(k);
         } else {
-            if (k >= 0 && k < getVertex(v).getChildren().size()) {
-                return getVertex(v).getParents().get(k);
-            } else {
-                return 0;
-            }
+            return 0;
         }
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Iteration<Integer> predecessors(int v) {
-        if (contains(v)) {
-            return Iteration.iteration(getVertex(v).getParents());
+        Vertex x = getVertex(v);
+        if (x != null) {
+            return x.getParents().iteration();
         } else {
-            ArrayList blank = new ArrayList<Integer>();
-            return Iteration.iteration((Iterable<Integer>) blank);
+            return NO_VERTICES.iteration();
+        }
+    }
+
+    @Override
+    public void forEachPredecessor(int v, IntConsumer action) {
+        Vertex x = getVertex(v);
+        if (x != null) {
+            x.getParents().forEach(action);
         }
     }
 }
@@ -0,0 +1,144 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An open-addressing hash table from long keys to non-negative int
+ *  values, used by GraphObj to find the storage slot of an edge from
+ *  its end points.  Keys and values are kept in primitive arrays, so
+ *  lookups, insertions, and removals allocate nothing and take
+ *  constant expected time.  Collisions are resolved by linear probing;
+ *  removal shifts later members of a probe sequence back, so the table
+ *  never contains tombstones.
+ *  @author tapan.jasthi
+ */
+class EdgeIndex {
+
+    /** Value returned by get for an absent key. */
+    static final int ABSENT = -1;
+
+    /** An empty index. */
+    EdgeIndex() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /** An empty index able to hold N keys without resizing. */
+    EdgeIndex(int n) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity * MAX_LOAD_NUM < n * MAX_LOAD_DEN) {
+            capacity *= 2;
+        }
+        allocate(capacity);
+    }
+
+    /** Returns the number of keys in me. */
+    int size() {
+        return size;
+    }
+
+    /** Returns the value stored under KEY, or ABSENT if there is none. */
+    int get(long key) {
+        int i = find(key);
+        return used[i] ? values[i] : ABSENT;
+    }
+
+    /** Store VALUE, which must be non-negative, under KEY, replacing any
+     *  previous value. */
+    void put(long key, int value) {
+        int i = find(key);
+        if (used[i]) {
+            values[i] = value;
+            return;
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        size += 1;
+        if (size * MAX_LOAD_DEN > keys.length * MAX_LOAD_NUM) {
+            rehash(2 * keys.length);
+        }
+    }
+
+    /** Remove KEY, if present, and return its value, or ABSENT if it
+     *  was not present. */
+    int remove(long key) {
+        int i = find(key);
+        if (!used[i]) {
+            return ABSENT;
+        }
+        int result = values[i];
+        int mask = keys.length - 1;
+        int hole = i;
+        for (int j = (i + 1) & mask; used[j]; j = (j + 1) & mask) {
+            int home = hash(keys[j]) & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        used[hole] = false;
+        size -= 1;
+        return result;
+    }
+
+    /** Remove all keys. */
+    void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /** Returns the index of KEY in keys, or of the free entry at which
+     *  it would be inserted. */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (used[i] && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /** Returns a well-mixed hash of KEY. */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /** Set my tables to empty tables of length CAPACITY, a power of 2. */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+    }
+
+    /** Move my contents into tables of length CAPACITY. */
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i += 1) {
+            if (oldUsed[i]) {
+                int j = find(oldKeys[i]);
+                used[j] = true;
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    /** Initial table length (a power of 2). */
+    private static final int INITIAL_CAPACITY = 16;
+    /** The table is grown when it is more than MAX_LOAD_NUM/MAX_LOAD_DEN
+     *  full. */
+    private static final int MAX_LOAD_NUM = 1, MAX_LOAD_DEN = 2;
+
+    /** Stored keys. */
+    private long[] keys;
+    /** Stored values, parallel to keys. */
+    private int[] values;
+    /** True at the entries of keys and values that are in use. */
+    private boolean[] used;
+    /** Number of entries in use. */
+    private int size;
+}
@@ -1,5 +1,7 @@
 package graph;
 
+import java.util.function.IntConsumer;
+
 /**
  * Represents a general unlabeled graph whose vertices are denoted by positive
  * integers. A graph may be directed or undirected. For an undirected graph,
@@ -70,6 +72,15 @@ public abstract class Graph {
     /** Remove V, if present, and all adjacent edges. */
     public abstract void remove(int v);
 
+    /** Remove each of VERTICES that is present, and all adjacent edges.
+     *  The effect is that of removing them one at a time, but
+     *  implementations may share work among them. */
+    public void removeAll(int[] vertices) {
+        for (int v : vertices) {
+            remove(v);
+        }
+    }
+
     /** Remove edge (U, V) from me, if present. */
     public abstract void remove(int u, int v);
 
@@ -109,6 +120,29 @@ public abstract class Graph {
      */
     public abstract Iteration<Integer> predecessors(int v);
 
+    /**
+     * Apply ACTION to each successor of V in the order the edges to them
+     * were added.  Has no effect if V is not my vertex.  Unlike
+     * successors(V), this neither allocates nor boxes vertex numbers, so
+     * it is the preferred form for inner loops.  ACTION must not modify me.
+     */
+    public void forEachSuccessor(int v, IntConsumer action) {
+        for (int k = 0, n = outDegree(v); k < n; k += 1) {
+            action.accept(successor(v, k));
+        }
+    }
+
+    /**
+     * Apply ACTION to each predecessor of V in the order the edges from
+     * them were added.  Has no effect if V is not my vertex.  ACTION must
+     * not modify me.
+     */
+    public void forEachPredecessor(int v, IntConsumer action) {
+        for (int k = 0, n = inDegree(v); k < n; k += 1) {
+            action.accept(predecessor(v, k));
+        }
+    }
+
     /**
      * Returns successors(V). This is a synonym typically used on undirected
      * graphs.
@@ -142,7 +176,8 @@ public abstract class Graph {
      * bounded by a small multiple of the meximum number of the
      * edges in the graph. Its purpose is to provide a mapping of
      * edges to integers for use by classes such as LabeledGraph.
-     * It is the same as that returned by add(u, v).
+     * It is the same as that returned by add(u, v).  The identifier
+     * of a removed edge may be reused for a later one.
      */
     protected abstract int edgeId(int u, int v);
 
@@ -0,0 +1,176 @@
+package graph;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+/** Timing runs for bulk edge insertion.  Each run builds graphs of
+ *  doubling size, so that a linear-time operation shows a roughly
+ *  constant cost per edge from one line of output to the next.  Run
+ *  with 'make bench' (or java graph.GraphBenchmark) in this directory;
+ *  'make bench' fixes the heap size, so that the collector does not
+ *  also spend time growing the heap as the graphs get larger.
+ *
+ *  For each size, the best of REPEATS runs is reported.  The columns
+ *  are the numbers of vertices and edges; the time per add of random
+ *  edges to a graph that starts empty, and the part of it spent in
+ *  garbage collection; the time per add of the same number of random
+ *  edges to a graph created with room for them all, whose tables never
+ *  grow; the time per add of edges added in order of their starting
+ *  vertex, each to one of the next LOCAL vertices; and the time per
+ *  lookup of a random edge.
+ *
+ *  Every add does a fixed number of steps at any size, but their cost
+ *  in time still rises over the smaller sizes, by some three or four
+ *  times for random edges.  The lookups, which allocate nothing, rise
+ *  as much: once the graph outgrows the processor caches, each random
+ *  add misses them in the edge index and in the adjacency lists of
+ *  both its ends.  The "local" column, whose adds reach the adjacency
+ *  lists nearly in order, rises least.  Once the graph is well beyond
+ *  the caches, from about a million edges on, the cost per edge of the
+ *  presized, local, and lookup columns levels off, which is the linear
+ *  scaling this benchmark is meant to show.  The first column also
+ *  pays for growing the tables and for garbage collection, which is
+ *  shown separately.
+ *  Not part of the graph package proper.
+ *  @author tapan.jasthi
+ */
+public class GraphBenchmark {
+
+    /** Number of graph sizes timed. */
+    private static final int SIZES = 7;
+    /** Number of vertices in the smallest graph timed. */
+    private static final int FIRST_SIZE = 1 << 13;
+    /** Number of edges added per vertex. */
+    private static final int DEGREE = 8;
+    /** Number of following vertices among which the ends of the
+     *  edges added in order are chosen. */
+    private static final int LOCAL = 64;
+    /** Number of times each size is timed. */
+    private static final int REPEATS = 3;
+    /** Seed for the random edges. */
+    private static final long SEED = 61;
+
+    /** Time bulk edge insertion and lookup.  ARGS are ignored. */
+    public static void main(String... args) {
+        System.out.printf("%10s %10s %10s %10s %10s %10s %10s%n",
+                          "vertices", "edges", "ns/add", "gc ns/add",
+                          "presized", "local", "ns/lookup");
+        warmUp();
+        for (int n = FIRST_SIZE, k = 0; k < SIZES; n *= 2, k += 1) {
+            time(n);
+        }
+    }
+
+    /** Exercise the code being timed so that the first timing is not
+     *  dominated by compilation. */
+    private static void warmUp() {
+        for (int i = 0; i < 3; i += 1) {
+            Graph g = new DirectedGraph();
+            addVertices(g, FIRST_SIZE);
+            addEdges(g, FIRST_SIZE, new Random(SEED));
+            lookUp(g, FIRST_SIZE);
+            g = new DirectedGraph();
+            addVertices(g, FIRST_SIZE);
+            addLocalEdges(g, FIRST_SIZE, new Random(SEED));
+        }
+    }
+
+    /** Build directed graphs with N vertices and DEGREE * N random
+     *  edges, and report the best times taken to add and then look up
+     *  their edges. */
+    private static void time(int n) {
+        long m = (long) DEGREE * n;
+        long add, gc, presized, local, lookup;
+        add = gc = presized = local = lookup = Long.MAX_VALUE;
+        int edges;
+        edges = 0;
+        for (int r = 0; r < REPEATS; r += 1) {
+            System.gc();
+            Graph g = new DirectedGraph();
+            addVertices(g, n);
+            long gc0 = gcNanos();
+            long start = System.nanoTime();
+            addEdges(g, n, new Random(SEED));
+            long added = System.nanoTime();
+            long gc1 = gcNanos();
+            lookUp(g, n);
+            long looked = System.nanoTime();
+            if (added - start < add) {
+                add = added - start;
+                gc = gc1 - gc0;
+            }
+            lookup = Math.min(lookup, looked - added);
+            edges = g.edgeSize();
+
+            g = null;
+            System.gc();
+            g = new DirectedGraph(n, DEGREE * n);
+            addVertices(g, n);
+            start = System.nanoTime();
+            addEdges(g, n, new Random(SEED));
+            presized = Math.min(presized, System.nanoTime() - start);
+
+            g = null;
+            System.gc();
+            g = new DirectedGraph(n, DEGREE * n);
+            addVertices(g, n);
+            start = System.nanoTime();
+            addLocalEdges(g, n, new Random(SEED));
+            local = Math.min(local, System.nanoTime() - start);
+        }
+
+        System.out.printf("%10d %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                          n, edges, (double) add / m, (double) gc / m,
+                          (double) presized / m, (double) local / m,
+                          (double) lookup / m);
+    }
+
+    /** Returns the total time the garbage collectors have taken so
+     *  far, in nanoseconds. */
+    private static long gcNanos() {
+        long total;
+        total = 0;
+        for (GarbageCollectorMXBean bean
+                 : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, bean.getCollectionTime());
+        }
+        return total * 1000000;
+    }
+
+    /** Add N vertices to G. */
+    private static void addVertices(Graph g, int n) {
+        for (int i = 0; i < n; i += 1) {
+            g.add();
+        }
+    }
+
+    /** Add DEGREE * N edges chosen by RAND among vertices 1 .. N to G. */
+    private static void addEdges(Graph g, int n, Random rand) {
+        for (int i = 0; i < DEGREE * n; i += 1) {
+            g.add(rand.nextInt(n) + 1, rand.nextInt(n) + 1);
+        }
+    }
+
+    /** Add DEGREE * N edges to G, whose vertices are 1 .. N, DEGREE
+     *  from each vertex in increasing order, to vertices chosen by RAND
+     *  among it and the LOCAL - 1 following, wrapping around. */
+    private static void addLocalEdges(Graph g, int n, Random rand) {
+        for (int i = 0; i < DEGREE * n; i += 1) {
+            int u = i / DEGREE;
+            g.add(u + 1, (u + rand.nextInt(LOCAL)) % n + 1);
+        }
+    }
+
+    /** Look up in G, whose vertices are 1 .. N, each of the edges added
+     *  by addEdges. */
+    private static void lookUp(Graph g, int n) {
+        Random rand = new Random(SEED);
+        for (int i = 0; i < DEGREE * n; i += 1) {
+            if (!g.contains(rand.nextInt(n) + 1, rand.nextInt(n) + 1)) {
+                throw new IllegalStateException("benchmark lookups failed");
+            }
+        }
+    }
+
+}
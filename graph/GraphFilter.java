@@ -1,5 +1,7 @@
 package graph;
 
+import java.util.function.IntConsumer;
+
 /** A Graph that delegates all its operations to another, preexisting
  *  Graph object.  This is intended to be extended, and selected methods
  *  overridden, as needed.
@@ -26,6 +28,11 @@ public class GraphFilter extends Graph {
         _G.remove(v);
     }
 
+    @Override
+    public void removeAll(int[] vertices) {
+        _G.removeAll(vertices);
+    }
+
     @Override
     public void remove(int u, int v) {
         _G.remove(u, v);
@@ -96,6 +103,16 @@ public class GraphFilter extends Graph {
         return _G.predecessors(v);
     }
 
+    @Override
+    public void forEachSuccessor(int v, IntConsumer action) {
+        _G.forEachSuccessor(v, action);
+    }
+
+    @Override
+    public void forEachPredecessor(int v, IntConsumer action) {
+        _G.forEachPredecessor(v, action);
+    }
+
     @Override
     public Iteration<int[]> edges() {
         return _G.edges();
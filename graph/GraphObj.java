@@ -1,6 +1,9 @@
 package graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 
 /** A partial implementation of Graph containing elements common to
  *  directed and undirected graphs.
@@ -15,17 +18,22 @@ abstract class GraphObj extends Graph {
     class Vertex {
         /** Value of the vertex. */
         private int value;
-        /** ArrayList of the vertex parents. */
-        private ArrayList<Integer> parents;
-        /** ArrayList of the vertex children. */
-        private ArrayList<Integer> children;
+        /** The vertex parents. */
+        private AdjacencyList parents;
+        /** The vertex children. */
+        private AdjacencyList children;
+        /** True while the vertex is being removed by removeAll. */
+        private boolean doomed;
+        /** True while the vertex is a neighbor of one being removed by
+         *  removeAll. */
+        private boolean touched;
 
         /** Vertex constructor.
          * @param n is the value of the vertex */
         private Vertex(int n) {
             value = n;
-            parents = new ArrayList<>();
-            children = new ArrayList<>();
+            parents = new AdjacencyList();
+            children = new AdjacencyList();
         }
 
         /** Returns the value of the vertex. */
@@ -33,32 +41,34 @@ abstract class GraphObj extends Graph {
             return value;
         }
 
-        /** Returns the children ArrayList of the vertex. */
-        ArrayList<Integer> getChildren() {
+        /** Returns the children of the vertex. */
+        AdjacencyList getChildren() {
             return children;
         }
 
-        /** Returns the parent ArrayList of the vertex. */
-        ArrayList<Integer> getParents() {
+        /** Returns the parents of the vertex. */
+        AdjacencyList getParents() {
             return parents;
         }
     }
 
-    /** Edge class that stores its number identification
-     * and its start and end vertices. */
+    /** Edge class that stores its number identification,
+     * its start and end vertices, and its neighbors in the
+     * order in which edges were added. */
     class Edge {
-        /** Identification number of the edge. */
+        /** Identification number of the edge: one more than its slot. */
         private int number;
         /** Start of the edge. */
         private int start;
         /** End of the edge. */
         private int end;
+        /** Previously and subsequently added edges, or null. */
+        private Edge prev, next;
 
         /** Edge constructor.
          * @param u is the start vertex. *
          * @param v is the end vertex. */
         private Edge(int u, int v) {
-            number = edgeId(u, v);
             start = u;
             end = v;
         }
@@ -76,31 +86,34 @@ abstract class GraphObj extends Graph {
 
     /** A new, empty Graph. */
     GraphObj() {
-        vertices = new ArrayList<>();
-        edges = new ArrayList<>();
+        this(0, 0);
+    }
+
+    /** A new, empty Graph with room for VERTEXCAPACITY vertices and
+     *  EDGECAPACITY edges before its tables must grow. */
+    GraphObj(int vertexCapacity, int edgeCapacity) {
+        vertices =
+            new Vertex[Math.max(INITIAL_VERTICES, vertexCapacity + 1)];
+        freeVertices = new IntHeap();
+        nextFresh = 1;
+        edgeSlots = new Edge[Math.max(INITIAL_EDGES, edgeCapacity)];
+        freeSlots = new int[INITIAL_EDGES];
+        edgeIndex = new EdgeIndex(edgeCapacity);
     }
 
     @Override
     public int vertexSize() {
-        return vertices.size();
+        return vertexCount;
     }
 
     @Override
     public int maxVertex() {
-        if (vertices.size() == 0) {
-            return 0;
-        }
-
-        int maximum = Integer.MIN_VALUE;
-        for (int i = 0; i < vertices.size(); i += 1) {
-            maximum = Math.max(vertices.get(i).getValue(), maximum);
-        }
-        return maximum;
+        return largest;
     }
 
     @Override
     public int edgeSize() {
-        return edges.size();
+        return edgeIndex.size();
     }
 
     @Override
@@ -120,46 +133,45 @@ abstract class GraphObj extends Graph {
 
     @Override
     public boolean contains(int u) {
-        if (getVertex(u) != null) {
-            return true;
-        }
-        return false;
+        return getVertex(u) != null;
     }
 
     @Override
     public boolean contains(int u, int v) {
-        if (contains(u) && contains(v)) {
-            if (getEdge(u, v) != null) {
-                return true;
-            }
-        }
-        return false;
+        return getEdge(u, v) != null;
     }
 
+    /** Returns a new vertex with no incident edges.  Its number is the
+     *  smallest freed vertex number, taken from freeVertices, if there
+     *  is one, and otherwise a new number, nextFresh. */
     @Override
     public int add() {
-        for (int i = 0; i < vertices.size(); i += 1) {
-            Vertex v = vertices.get(i);
-            if (v.value != i + 1) {
-                Vertex vert = new Vertex(i + 1);
-                vertices.add(i, vert);
-                return i + 1;
-            }
+        int n;
+        if (freeVertices.isEmpty()) {
+            n = nextFresh;
+            nextFresh += 1;
+        } else {
+            n = freeVertices.removeMin();
+        }
+        if (n == vertices.length) {
+            vertices = Arrays.copyOf(vertices, 2 * vertices.length);
         }
 
-        Vertex vert = new Vertex(vertices.size() + 1);
-        vertices.add(vert);
-        return vert.value;
+        vertices[n] = new Vertex(n);
+        vertexCount += 1;
+        largest = Math.max(largest, n);
+        return n;
     }
 
 
     @Override
     public int add(int u, int v) {
-        if (contains(u, v)) {
-            return edgeId(u, v);
+        Edge e = getEdge(u, v);
+        if (e != null) {
+            return e.number;
         }
 
-        Edge e = new Edge(u, v);
+        e = new Edge(u, v);
 
         Vertex uVert = getVertex(u);
         Vertex vVert = getVertex(v);
@@ -173,69 +185,126 @@ abstract class GraphObj extends Graph {
             vVert.getChildren().add(u);
         }
 
-        edges.add(e);
+        link(e);
         return e.number;
     }
 
     @Override
     public void remove(int v) {
-
-        if (!contains(v)) {
+        Vertex vert = getVertex(v);
+        if (vert == null) {
             return;
         }
 
-        for (int i = 0; i < edges.size(); i += 1) {
-            Edge e = edges.get(i);
-            if ((e.getStart() == v) || (e.getEnd() == v)) {
-                remove(e.getStart(), e.getEnd());
-                i -= 1;
+        AdjacencyList children = vert.getChildren();
+        for (int k = 0; k < children.size(); k += 1) {
+            int c = children.get(k);
+            unlink(getEdge(v, c));
+            if (c == v) {
+                continue;
+            } else if (isDirected()) {
+                getVertex(c).getParents().remove(v);
+            } else {
+                getVertex(c).getChildren().remove(v);
             }
         }
 
-        vertices.remove(getVertex(v));
+        AdjacencyList parents = vert.getParents();
+        for (int k = 0; k < parents.size(); k += 1) {
+            int p = parents.get(k);
+            if (p != v) {
+                unlink(getEdge(p, v));
+                getVertex(p).getChildren().remove(v);
+            }
+        }
+
+        free(v);
     }
 
+    /** Remove each of VERTICES that is present, and all adjacent edges.
+     *  Each vertex's own edges are visited once, as for remove(v), but
+     *  each surviving neighbor has all its references to removed vertices
+     *  purged in a single pass over its adjacency lists. */
     @Override
-    public void remove(int u, int v) {
-        if (!(contains(u) || !contains(v))) {
-            return;
+    public void removeAll(int[] vertices) {
+        ArrayList<Vertex> doomed = new ArrayList<>();
+        for (int v : vertices) {
+            Vertex vert = getVertex(v);
+            if (vert != null && !vert.doomed) {
+                vert.doomed = true;
+                doomed.add(vert);
+            }
+        }
+
+        ArrayList<Vertex> touched = new ArrayList<>();
+        for (Vertex vert : doomed) {
+            int v = vert.getValue();
+            AdjacencyList children = vert.getChildren();
+            for (int k = 0; k < children.size(); k += 1) {
+                int c = children.get(k);
+                Edge e = getEdge(v, c);
+                if (e != null) {
+                    unlink(e);
+                }
+                touch(getVertex(c), touched);
+            }
+            AdjacencyList parents = vert.getParents();
+            for (int k = 0; k < parents.size(); k += 1) {
+                int p = parents.get(k);
+                Edge e = getEdge(p, v);
+                if (e != null) {
+                    unlink(e);
+                }
+                touch(getVertex(p), touched);
+            }
+        }
+
+        for (Vertex vert : touched) {
+            vert.getChildren().removeIf(isDoomed);
+            vert.getParents().removeIf(isDoomed);
+            vert.touched = false;
+        }
+        for (Vertex vert : doomed) {
+            free(vert.getValue());
         }
+    }
 
-        if (!contains(u, v)) {
+    @Override
+    public void remove(int u, int v) {
+        Edge e = getEdge(u, v);
+        if (e == null) {
             return;
         }
 
         Vertex uVert = getVertex(u);
         Vertex vVert = getVertex(v);
         if (isDirected()) {
-            uVert.getChildren().remove((Integer) v);
-            vVert.getParents().remove((Integer) u);
+            uVert.getChildren().remove(v);
+            vVert.getParents().remove(u);
         } else {
-            uVert.getChildren().remove((Integer) v);
-            vVert.getChildren().remove((Integer) u);
+            uVert.getChildren().remove(v);
+            vVert.getChildren().remove(u);
         }
 
-        edges.remove(getEdge(u, v));
+        unlink(e);
     }
 
     @Override
     public Iteration<Integer> vertices() {
-        ArrayList<Integer> valueList = new ArrayList<>();
-        for (int i = 0; i < vertices.size(); i += 1) {
-            Vertex v = vertices.get(i);
-            valueList.add(v.getValue());
+        ArrayList<Integer> valueList = new ArrayList<>(vertexCount);
+        for (int i = 1; i <= largest; i += 1) {
+            if (vertices[i] != null) {
+                valueList.add(i);
+            }
         }
         return Iteration.iteration(valueList);
     }
 
     @Override
     public int successor(int v, int k) {
-        if (contains(v)) {
-            if (k >= 0 && k < getVertex(v).getChildren().size()) {
-                return getVertex(v).getChildren().get(k);
-            } else {
-                return 0;
-            }
+        Vertex vert = getVertex(v);
+        if (vert != null && k >= 0 && k < vert.getChildren().size()) {
+            return vert.getChildren().get(k);
         } else {
             return 0;
         }
@@ -245,24 +314,30 @@ abstract class GraphObj extends Graph {
     public abstract int predecessor(int v, int k);
 
     @Override
-    @SuppressWarnings("unchecked")
     public Iteration<Integer> successors(int v) {
-        if (contains(v)) {
-            return Iteration.iteration(getVertex(v).getChildren());
+        Vertex vert = getVertex(v);
+        if (vert != null) {
+            return vert.getChildren().iteration();
         } else {
-            ArrayList blank = new ArrayList<Integer>();
-            return Iteration.iteration((Iterable<Integer>) blank);
+            return NO_VERTICES.iteration();
         }
     }
 
     @Override
     public abstract Iteration<Integer> predecessors(int v);
 
+    @Override
+    public void forEachSuccessor(int v, IntConsumer action) {
+        Vertex vert = getVertex(v);
+        if (vert != null) {
+            vert.getChildren().forEach(action);
+        }
+    }
+
     @Override
     public Iteration<int[]> edges() {
-        ArrayList<int[]> edgeData = new ArrayList<>();
-        for (int i = 0; i < edges.size(); i += 1) {
-            Edge e = edges.get(i);
+        ArrayList<int[]> edgeData = new ArrayList<>(edgeSize());
+        for (Edge e = firstEdge; e != null; e = e.next) {
             edgeData.add(new int[] {e.getStart(), e.getEnd()});
         }
         return Iteration.iteration(edgeData);
@@ -275,43 +350,161 @@ abstract class GraphObj extends Graph {
         }
     }
 
+    /** Edge ids are allocated densely: an edge's id is one more than
+     *  its slot in edgeSlots, and the slots of removed edges are reused.
+     *  Ids are therefore bounded by the largest number of edges I have
+     *  ever held at once, whatever the vertex numbers. */
     @Override
     protected int edgeId(int u, int v) {
-        int pairingPartOne = ((u + v) * (u + v + 1)) / 2;
-        if (!isDirected()) {
-            return pairingPartOne + Math.min(u, v);
-        } else {
-            return pairingPartOne + v;
-        }
+        Edge e = getEdge(u, v);
+        return e == null ? 0 : e.number;
     }
 
-    /** Given the vertex number, return the Vertex object.
+    /** Given the vertex number, return the Vertex object, or null
+     * if V is not one of my vertices.
      * @param v is the value of the vertex. */
     Vertex getVertex(int v) {
-        for (int i = 0; i < vertices.size(); i += 1) {
-            Vertex x = vertices.get(i);
-            if (x.getValue() == v) {
-                return x;
-            }
+        if (v > 0 && v < vertices.length) {
+            return vertices[v];
         }
         return null;
     }
 
-    /** Using vertices u and v, return the edge between them.
+    /** Using vertices u and v, return the edge between them,
+     * or null if there is none.
      * @param u is the value of the start vertex.
      * @param v is the value of the end vertex. */
     Edge getEdge(int u, int v) {
-        for (int i = 0; i < edges.size(); i += 1) {
-            Edge e = edges.get(i);
-            if (e.number == edgeId(u, v)) {
-                return e;
+        int slot = edgeIndex.get(edgeKey(u, v));
+        if (slot == EdgeIndex.ABSENT) {
+            return null;
+        }
+        return edgeSlots[slot];
+    }
+
+    /** Returns the key under which edge (U, V) is entered in edgeIndex.
+     *  The key packs both end points into a long, ordering them for
+     *  undirected graphs so that (U, V) and (V, U) share a key. */
+    long edgeKey(int u, int v) {
+        if (!isDirected() && u > v) {
+            int t = u;
+            u = v;
+            v = t;
+        }
+        return ((long) u << Integer.SIZE) | (v & 0xffffffffL);
+    }
+
+    /** Add VERT to TOUCHED, unless it is already there or is being
+     *  removed.  Helper to removeAll. */
+    private void touch(Vertex vert, ArrayList<Vertex> touched) {
+        if (!vert.doomed && !vert.touched) {
+            vert.touched = true;
+            touched.add(vert);
+        }
+    }
+
+    /** Take V, whose edges must already have been removed, out of the
+     *  vertex table and make its number available for reuse. */
+    private void free(int v) {
+        vertices[v] = null;
+        vertexCount -= 1;
+        if (v == nextFresh - 1) {
+            nextFresh -= 1;
+        } else {
+            freeVertices.add(v);
+        }
+        while (largest > 0 && vertices[largest] == null) {
+            largest -= 1;
+        }
+    }
+
+    /** Give E a slot, enter it in edgeIndex, and append it to the
+     *  sequence of edges. */
+    private void link(Edge e) {
+        int slot;
+        if (freeCount > 0) {
+            freeCount -= 1;
+            slot = freeSlots[freeCount];
+        } else {
+            if (slotsUsed == edgeSlots.length) {
+                edgeSlots = Arrays.copyOf(edgeSlots, 2 * slotsUsed);
             }
+            slot = slotsUsed;
+            slotsUsed += 1;
+        }
+        e.number = slot + 1;
+        edgeSlots[slot] = e;
+        edgeIndex.put(edgeKey(e.start, e.end), slot);
+
+        e.prev = lastEdge;
+        if (lastEdge == null) {
+            firstEdge = e;
+        } else {
+            lastEdge.next = e;
+        }
+        lastEdge = e;
+    }
+
+    /** Remove E from edgeIndex and the sequence of edges, and free its
+     *  slot.  E's own next link is left intact, so that a walk over the
+     *  edge sequence may remove the edge it is visiting. */
+    private void unlink(Edge e) {
+        edgeIndex.remove(edgeKey(e.start, e.end));
+        edgeSlots[e.number - 1] = null;
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, 2 * freeCount);
+        }
+        freeSlots[freeCount] = e.number - 1;
+        freeCount += 1;
+
+        if (e.prev == null) {
+            firstEdge = e.next;
+        } else {
+            e.prev.next = e.next;
+        }
+        if (e.next == null) {
+            lastEdge = e.prev;
+        } else {
+            e.next.prev = e.prev;
         }
-        return null;
     }
 
-    /** ArrayList of vertices. */
-    private ArrayList<Vertex> vertices;
-    /** ArrayList of edges. */
-    private ArrayList<Edge> edges;
+    /** True for vertex numbers whose vertices are being removed by
+     *  removeAll. */
+    private final IntPredicate isDoomed = v -> getVertex(v).doomed;
+
+    /** An adjacency list that is always empty. */
+    static final AdjacencyList NO_VERTICES = new AdjacencyList();
+
+    /** Initial length of the vertex table. */
+    private static final int INITIAL_VERTICES = 16;
+    /** Initial length of the edge slot table. */
+    private static final int INITIAL_EDGES = 16;
+
+    /** Vertex table indexed by vertex number.  Entry 0 and the entries
+     *  of removed vertices are null. */
+    private Vertex[] vertices;
+    /** Number of non-null entries in vertices. */
+    private int vertexCount;
+    /** Largest vertex number in vertices, or 0 if there are none. */
+    private int largest;
+    /** Every free vertex number below nextFresh.  The smallest free
+     *  vertex number is the smallest of these, or else nextFresh. */
+    private IntHeap freeVertices;
+    /** The least number such that it and all greater numbers are free.
+     *  add allocates it only when freeVertices is empty. */
+    private int nextFresh;
+    /** Edges, indexed by slot.  Freed slots are null. */
+    private Edge[] edgeSlots;
+    /** Number of slots that have ever been used. */
+    private int slotsUsed;
+    /** Stack of freed slots below slotsUsed, available for reuse. */
+    private int[] freeSlots;
+    /** Number of entries in freeSlots. */
+    private int freeCount;
+    /** Mapping of edge keys (see edgeKey) to slots in edgeSlots. */
+    private EdgeIndex edgeIndex;
+    /** First and last edges in order of addition, or null if I have
+     *  no edges. */
+    private Edge firstEdge, lastEdge;
 }
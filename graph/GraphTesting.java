@@ -539,4 +539,255 @@ public class GraphTesting {
         assertEquals(2, first);
         assertEquals(4, second);
     }
+
+    @Test
+    public final void testRemoveLargest() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 40; i += 1) {
+            g.add();
+        }
+        g.add(40, 1);
+        g.add(2, 1);
+        assertEquals(40, g.maxVertex());
+        g.remove(40);
+        g.remove(39);
+        assertEquals(38, g.maxVertex());
+        assertEquals(38, g.vertexSize());
+        assertEquals(false, g.contains(40));
+        assertEquals(2, g.predecessor(1, 0));
+        assertEquals(0, g.predecessor(1, 1));
+        assertEquals(39, g.add());
+    }
+
+    @Test
+    public final void testEdgeOrderAfterRemove() {
+        UndirectedGraph g = new UndirectedGraph();
+        for (int i = 0; i < 5; i += 1) {
+            g.add();
+        }
+        g.add(1, 2);
+        g.add(2, 3);
+        g.add(3, 4);
+        g.add(4, 5);
+        g.remove(3, 2);
+        g.add(5, 1);
+        assertEquals(true, g.contains(4, 3));
+        assertEquals(false, g.contains(2, 3));
+        ArrayList<Integer> result = new ArrayList<>();
+        for (int[] e : g.edges()) {
+            result.add(e[0]);
+            result.add(e[1]);
+        }
+        assertEquals(java.util.Arrays.asList(1, 2, 3, 4, 4, 5, 5, 1), result);
+        assertEquals(4, g.edgeSize());
+    }
+
+    @Test
+    public final void testAddAfterChurn() {
+        UndirectedGraph g = new UndirectedGraph();
+        for (int i = 0; i < 100; i += 1) {
+            g.add();
+        }
+        for (int v = 100; v > 0; v -= 3) {
+            g.remove(v);
+        }
+        g.remove(99);
+        g.remove(50);
+        assertEquals(98, g.maxVertex());
+        assertEquals(1, g.add());
+        assertEquals(4, g.add());
+        g.remove(1);
+        assertEquals(1, g.add());
+        for (int i = 0; i < 34; i += 1) {
+            g.add();
+        }
+        assertEquals(100, g.vertexSize());
+        assertEquals(100, g.maxVertex());
+        assertEquals(101, g.add());
+    }
+
+    @Test
+    public final void testForEachSuccessor() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            g.add();
+        }
+        g.add(1, 3);
+        g.add(1, 2);
+        g.add(4, 2);
+        g.add(1, 4);
+        ArrayList<Integer> succ = new ArrayList<>();
+        ArrayList<Integer> pred = new ArrayList<>();
+        Graph filtered = new LabeledGraph<Void, Void>(g);
+        filtered.forEachSuccessor(1, succ::add);
+        filtered.forEachPredecessor(2, pred::add);
+        g.forEachSuccessor(5, succ::add);
+        assertEquals(java.util.Arrays.asList(3, 2, 4), succ);
+        assertEquals(java.util.Arrays.asList(1, 4), pred);
+    }
+
+    @Test
+    public final void testRemoveAll() {
+        for (int trial = 0; trial < 2; trial += 1) {
+            Graph g1 = trial == 0 ? new DirectedGraph() : new UndirectedGraph();
+            Graph g2 = trial == 0 ? new DirectedGraph() : new UndirectedGraph();
+            java.util.Random rand = new java.util.Random(trial);
+            for (int i = 0; i < 30; i += 1) {
+                g1.add();
+                g2.add();
+            }
+            for (int i = 0; i < 120; i += 1) {
+                int u = rand.nextInt(30) + 1, v = rand.nextInt(30) + 1;
+                g1.add(u, v);
+                g2.add(u, v);
+            }
+            int[] doomed = { 3, 17, 3, 29, 30, 8, 44 };
+            for (int v : doomed) {
+                g1.remove(v);
+            }
+            g2.removeAll(doomed);
+            assertEquals(g1.vertexSize(), g2.vertexSize());
+            assertEquals(g1.edgeSize(), g2.edgeSize());
+            assertEquals(edgeList(g1), edgeList(g2));
+            for (int v = 1; v <= 30; v += 1) {
+                ArrayList<Integer> s1 = new ArrayList<>(),
+                    s2 = new ArrayList<>();
+                g1.forEachSuccessor(v, s1::add);
+                g1.forEachPredecessor(v, s1::add);
+                g2.forEachSuccessor(v, s2::add);
+                g2.forEachPredecessor(v, s2::add);
+                assertEquals(s1, s2);
+            }
+        }
+    }
+
+    @Test
+    public final void testDenseEdgeIds() {
+        LabeledGraph<Void, String> g =
+            new LabeledGraph<>(new DirectedGraph());
+        for (int i = 0; i < 60000; i += 1) {
+            g.add();
+        }
+        int e1 = g.add(59999, 60000, "a");
+        int e2 = g.add(60000, 59999, "b");
+        assertEquals(true, e1 > 0 && e1 <= 2);
+        assertEquals(true, e2 > 0 && e2 <= 2 && e2 != e1);
+        assertEquals(e1, g.add(59999, 60000));
+        g.remove(60000);
+        assertEquals(0, g.edgeSize());
+        g.add(1, 2);
+        assertEquals(true, g.edgeId(1, 2) <= 2);
+        assertEquals(null, g.getLabel(1, 2));
+        assertEquals(0, g.edgeId(2, 1));
+    }
+
+    @Test
+    public final void testCsrGraph() {
+        for (int trial = 0; trial < 2; trial += 1) {
+            Graph g = trial == 0 ? new DirectedGraph() : new UndirectedGraph();
+            java.util.Random rand = new java.util.Random(trial);
+            for (int i = 0; i < 25; i += 1) {
+                g.add();
+            }
+            for (int i = 0; i < 80; i += 1) {
+                g.add(rand.nextInt(25) + 1, rand.nextInt(25) + 1);
+            }
+            g.remove(7);
+            g.remove(25);
+            CsrGraph csr = CsrGraph.of(g);
+            assertEquals(g.isDirected(), csr.isDirected());
+            assertEquals(g.vertexSize(), csr.vertexSize());
+            assertEquals(g.maxVertex(), csr.maxVertex());
+            assertEquals(g.edgeSize(), csr.edgeSize());
+            assertEquals(edgeList(g), edgeList(csr));
+            ArrayList<int[]> kept = new ArrayList<>();
+            for (int[] e : csr.edges()) {
+                kept.add(e);
+            }
+            for (int k = 0; k < kept.size(); k += 1) {
+                int[] e = kept.get(k);
+                assertEquals(k + 1, csr.edgeId(e[0], e[1]));
+            }
+            for (int u = 0; u <= 26; u += 1) {
+                assertEquals(g.contains(u), csr.contains(u));
+                ArrayList<Integer> s1 = new ArrayList<>(),
+                    s2 = new ArrayList<>();
+                for (int v : g.successors(u)) {
+                    s1.add(v);
+                }
+                for (int v : g.predecessors(u)) {
+                    s1.add(-v);
+                }
+                for (int v : csr.successors(u)) {
+                    s2.add(v);
+                }
+                csr.forEachPredecessor(u, v -> s2.add(-v));
+                assertEquals(s1, s2);
+                for (int v = 0; v <= 26; v += 1) {
+                    assertEquals(g.contains(u, v), csr.contains(u, v));
+                }
+            }
+        }
+    }
+
+    @Test
+    public final void testLabeledCsrGraph() {
+        UndirectedGraph g = new UndirectedGraph();
+        g.add();
+        g.add();
+        g.add();
+        g.add(1, 2);
+        g.add(3, 2);
+        LabeledGraph<String, Double> lg =
+            new LabeledGraph<>(CsrGraph.of(g));
+        lg.setLabel(2, "two");
+        lg.setLabel(2, 3, 4.5);
+        assertEquals("two", lg.getLabel(2));
+        assertEquals(4.5, lg.getLabel(3, 2), 0.0);
+        assertEquals(null, lg.getLabel(1, 2));
+    }
+
+    @Test
+    public final void testCsrGraphFromRows() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 4; i += 1) {
+            g.add();
+        }
+        g.add(1, 3);
+        g.add(1, 2);
+        g.add(3, 1);
+        g.add(4, 3);
+        CsrGraph csr =
+            CsrGraph.fromRows(new int[] { 0, 0, 2, 2, 3, 4 },
+                              new int[] { 3, 2, 1, 3 });
+        assertEquals(true, csr.isDirected());
+        assertEquals(4, csr.vertexSize());
+        assertEquals(4, csr.maxVertex());
+        assertEquals(edgeList(g), edgeList(csr));
+        assertEquals(3, csr.edgeId(3, 1));
+        assertEquals(2, csr.inDegree(3));
+        assertEquals(0, csr.outDegree(2));
+        assertEquals(true, csr.contains(4, 3));
+        assertEquals(false, csr.contains(3, 4));
+        ArrayList<Integer> preds = new ArrayList<>();
+        csr.forEachPredecessor(3, preds::add);
+        assertEquals(java.util.Arrays.asList(1, 4), preds);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public final void testCsrGraphImmutable() {
+        DirectedGraph g = new DirectedGraph();
+        g.add();
+        CsrGraph.of(g).add(1, 1);
+    }
+
+    /** Returns the edges of G, in order, as a flat list of end points. */
+    private static ArrayList<Integer> edgeList(Graph g) {
+        ArrayList<Integer> result = new ArrayList<>();
+        for (int[] e : g.edges()) {
+            result.add(e[0]);
+            result.add(e[1]);
+        }
+        return result;
+    }
 }
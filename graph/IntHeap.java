@@ -0,0 +1,69 @@
+package graph;
+
+import java.util.Arrays;
+
+/** A binary min-heap of ints held in a primitive array.  GraphObj uses
+ *  it to find the smallest free vertex number.
+ *  @author tapan.jasthi
+ */
+class IntHeap {
+
+    /** An empty heap. */
+    IntHeap() {
+        items = new int[INITIAL_LENGTH];
+    }
+
+    /** Returns true iff I am empty. */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Returns the number of items in me. */
+    int size() {
+        return size;
+    }
+
+    /** Add X to me. */
+    void add(int x) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, 2 * size);
+        }
+        int k = size;
+        size += 1;
+        while (k > 0 && items[(k - 1) / 2] > x) {
+            items[k] = items[(k - 1) / 2];
+            k = (k - 1) / 2;
+        }
+        items[k] = x;
+    }
+
+    /** Remove and return my smallest item.  Assumes I am not empty. */
+    int removeMin() {
+        int result = items[0];
+        size -= 1;
+        int x = items[size];
+        int k = 0;
+        while (2 * k + 1 < size) {
+            int c = 2 * k + 1;
+            if (c + 1 < size && items[c + 1] < items[c]) {
+                c += 1;
+            }
+            if (items[c] >= x) {
+                break;
+            }
+            items[k] = items[c];
+            k = c;
+        }
+        items[k] = x;
+        return result;
+    }
+
+    /** Initial length of items. */
+    private static final int INITIAL_LENGTH = 8;
+
+    /** The heap, in positions 0 .. size-1.  The item at K is no larger
+     *  than those at 2K+1 and 2K+2. */
+    private int[] items;
+    /** Number of items in me. */
+    private int size;
+}
@@ -1,6 +1,6 @@
 package graph;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /** A Graph whose vertices are labeled with type VL and whose edges are
  *  labeled with type EL.
@@ -16,29 +16,40 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         super(G);
     }
 
+    /** A labeling of the graph G, as for LabeledGraph(G), with room for
+     *  labels on VERTICES vertices and EDGES edges before its tables
+     *  must grow. */
+    public LabeledGraph(Graph G, int vertices, int edges) {
+        super(G);
+        _vlabel = new Object[vertices + 1];
+        _elabel = new Object[edges + 1];
+    }
+
     /** Returns the label on vertex V, which must be one of my
      *  vertices. */
+    @SuppressWarnings("unchecked")
     public VL getLabel(int v) {
         checkMyVertex(v);
-        return v < _vlabel.size() ? _vlabel.get(v) : null;
+        return v < _vlabel.length ? (VL) _vlabel[v] : null;
     }
 
     /** Returns the label on the edge (U, V), which must be one of
      *  my edges. */
+    @SuppressWarnings("unchecked")
     public EL getLabel(int u, int v) {
         int e = edgeId(u, v);
         if (e == 0) {
             throw new IllegalArgumentException("no such edge");
         }
-        return e < _elabel.size() ? _elabel.get(e) : null;
+        return e < _elabel.length ? (EL) _elabel[e] : null;
     }
 
     /** Set getVertexLabel(V) to LAB.  V must be one of my vertices. */
     public void setLabel(int v, VL lab) {
         checkMyVertex(v);
-        if (lab != null || v < _vlabel.size()) {
-            expand(_vlabel, v + 1);
-            _vlabel.set(v, lab);
+        if (lab != null || v < _vlabel.length) {
+            _vlabel = expand(_vlabel, v + 1);
+            _vlabel[v] = lab;
         }
     }
 
@@ -48,10 +59,7 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         if (e == 0) {
             throw new IllegalArgumentException("no such edge");
         }
-        if (lab != null || e < _elabel.size()) {
-            expand(_elabel, e + 1);
-            _elabel.set(e, lab);
-        }
+        setEdgeLabel(e, lab);
     }
 
     /** Returns a new vertex labeled LAB, and adds it to me with no
@@ -68,18 +76,52 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
      *  an edge (U, V), sets its label to EL. */
     public int add(int u, int v, EL lab) {
         int e = add(u, v);
-        if (lab != null || e < _elabel.size()) {
-            expand(_elabel, e + 1);
-            _elabel.set(e, lab);
-        }
+        setEdgeLabel(e, lab);
         return e;
     }
 
     @Override
     public void remove(int v) {
+        clearEdgeLabels(v);
         super.remove(v);
-        if (v < _vlabel.size()) {
-            _vlabel.set(v, null);
+        if (v < _vlabel.length) {
+            _vlabel[v] = null;
+        }
+    }
+
+    @Override
+    public void removeAll(int[] vertices) {
+        for (int v : vertices) {
+            clearEdgeLabels(v);
+        }
+        super.removeAll(vertices);
+        for (int v : vertices) {
+            if (v >= 0 && v < _vlabel.length) {
+                _vlabel[v] = null;
+            }
+        }
+    }
+
+    /** Clear the labels of all edges incident on V.  Edge ids may be
+     *  reused once the edges are removed, so their labels must not
+     *  survive them. */
+    private void clearEdgeLabels(int v) {
+        forEachSuccessor(v, w -> clearEdgeLabel(edgeId(v, w)));
+        forEachPredecessor(v, w -> clearEdgeLabel(edgeId(w, v)));
+    }
+
+    /** Set the label of the edge whose id is E to null. */
+    private void clearEdgeLabel(int e) {
+        if (e < _elabel.length) {
+            _elabel[e] = null;
+        }
+    }
+
+    /** Set the label of the edge whose id is E to LAB. */
+    private void setEdgeLabel(int e, EL lab) {
+        if (lab != null || e < _elabel.length) {
+            _elabel = expand(_elabel, e + 1);
+            _elabel[e] = lab;
         }
     }
 
@@ -88,22 +130,27 @@ public class LabeledGraph<VL, EL> extends GraphFilter {
         int e = edgeId(u, v);
         if (e != 0) {
             super.remove(u, v);
-            if (e < _elabel.size()) {
-                _elabel.set(e, null);
-            }
+            clearEdgeLabel(e);
         }
     }
 
-    /** If necessary, add nulls to L to make its length N.  Has no effect if
-     *  L's length is already at least N. */
-    static void expand(ArrayList<?> L, int n) {
-        while (L.size() < n) {
-            L.add(null);
+    /** Returns L if its length is at least N, and otherwise a copy of L
+     *  padded with nulls to at least length N.  Copies grow at least
+     *  geometrically, so that filling an array one index at a time
+     *  takes amortized constant time per index. */
+    static Object[] expand(Object[] L, int n) {
+        if (L.length >= n) {
+            return L;
         }
+        return Arrays.copyOf(L, Math.max(n, 2 * L.length));
     }
 
-    /** Mapping of vertex numbers to vertex labels. */
-    private final ArrayList<VL> _vlabel = new ArrayList<>();
-    /** Mapping of unique edge ids to edge labels. */
-    private final ArrayList<EL> _elabel = new ArrayList<>();
+    /** Mapping of vertex numbers to vertex labels.  Vertex numbers are
+     *  always the smallest available, so this is as long as the largest
+     *  number of vertices I have held. */
+    private Object[] _vlabel = new Object[0];
+    /** Mapping of unique edge ids to edge labels.  Edge ids are bounded
+     *  by a small multiple of the number of edges, so this stays
+     *  proportional to my edge count. */
+    private Object[] _elabel = new Object[0];
 }
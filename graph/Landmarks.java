@@ -0,0 +1,252 @@
+package graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/** Landmark distance tables for an edge-weighted graph, giving lower
+ *  bounds on shortest-path lengths for A* search (the "ALT" method).
+ *  As for ShortestPaths, the client supplies edge weights by overriding
+ *  getWeight(U, V), which must be nonnegative.
+ *
+ *  For each of a few landmark vertices L, the tables hold the lengths
+ *  d(L, V) of shortest paths from L to every vertex V and d(V, L) of
+ *  those back to L.  By the triangle inequality, d(V, T) is at least
+ *  d(L, T) - d(L, V) and at least d(V, L) - d(T, L), and the largest of
+ *  these over all landmarks is a consistent estimate.  To use it, a
+ *  ShortestPaths subclass overrides estimatedDistance(V) to return
+ *  lowerBound(V, getDest()).
+ *
+ *  Landmarks are chosen by selectFarthest or setLandmarks, after which
+ *  compute fills the tables, running the single-source searches from
+ *  the landmarks in parallel.  The tables may be saved to a file and
+ *  loaded again instead of being recomputed.  Once computed, they are
+ *  not modified, and may be read by any number of threads at once.
+ *  @author tapan.jasthi
+ */
+public abstract class Landmarks {
+
+    /** Landmark tables for G, initially with no landmarks. */
+    public Landmarks(Graph G) {
+        _G = G;
+        _landmarks = new int[0];
+        _from = _to = new double[0][];
+    }
+
+    /** Returns the graph I was created for. */
+    public Graph getGraph() {
+        return _G;
+    }
+
+    /** Returns the weight of edge (U, V) of the graph. */
+    protected abstract double getWeight(int u, int v);
+
+    /** Use VERTICES as the landmarks.  The tables are empty until
+     *  compute is called. */
+    public void setLandmarks(int... vertices) {
+        for (int v : vertices) {
+            if (!_G.contains(v)) {
+                throw new IllegalArgumentException("vertex not from Graph");
+            }
+        }
+        _landmarks = vertices.clone();
+        _from = _to = new double[0][];
+    }
+
+    /** Choose up to K landmarks spread across the graph.  The first is
+     *  the vertex farthest from the lowest-numbered vertex, and each
+     *  other is the vertex farthest from the nearest landmark chosen so
+     *  far, where vertices unreachable from all of them count as
+     *  farthest.  Takes K + 1 single-source searches.  The tables are
+     *  empty until compute is called. */
+    public void selectFarthest(int k) {
+        int n = _G.maxVertex();
+        int[] chosen = new int[k];
+        int count;
+        count = 0;
+        double[] nearest = new double[n + 1];
+        if (_G.vertexSize() > 0) {
+            int start = _G.vertices().next();
+            nearest = distances(start, true);
+            /* Let START itself be chosen if nothing else is reachable. */
+            nearest[start] = Double.MIN_VALUE;
+            int next = farthest(nearest, false);
+            Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+            while (next != 0 && count < k) {
+                chosen[count] = next;
+                count += 1;
+                double[] d = distances(next, true);
+                for (int v = 1; v <= n; v += 1) {
+                    nearest[v] = Math.min(nearest[v], d[v]);
+                }
+                next = farthest(nearest, true);
+            }
+        }
+        setLandmarks(Arrays.copyOf(chosen, count));
+    }
+
+    /** Returns the vertex with the largest positive entry in D, counting
+     *  infinite entries only if INFINITE, or 0 if there is none. */
+    private int farthest(double[] d, boolean infinite) {
+        int result;
+        result = 0;
+        for (int v = 1; v < d.length; v += 1) {
+            if (_G.contains(v) && d[v] > 0.0
+                && (infinite || d[v] != Double.POSITIVE_INFINITY)
+                && (result == 0 || d[v] > d[result])) {
+                result = v;
+            }
+        }
+        return result;
+    }
+
+    /** Fill the tables for the current landmarks, running the searches
+     *  from and to the landmarks in parallel. */
+    public void compute() {
+        int k = _landmarks.length;
+        double[][] from = new double[k][], to = new double[k][];
+        IntStream.range(0, 2 * k).parallel().forEach(i -> {
+            if (i < k) {
+                from[i] = distances(_landmarks[i], true);
+            } else {
+                to[i - k] = distances(_landmarks[i - k], false);
+            }
+        });
+        _from = from;
+        _to = to;
+    }
+
+    /** Returns a copy of the current landmarks. */
+    public int[] landmarks() {
+        return _landmarks.clone();
+    }
+
+    /** Returns true iff the tables have been computed or loaded for the
+     *  current landmarks. */
+    public boolean isComputed() {
+        return _from.length == _landmarks.length && _landmarks.length > 0;
+    }
+
+    /** Returns a lower bound on the length of a shortest path from V to
+     *  DEST, or 0 if the tables are empty or either vertex is not
+     *  covered by them. */
+    public double lowerBound(int v, int dest) {
+        double bound = 0.0;
+        for (int i = 0; i < _from.length; i += 1) {
+            double[] from = _from[i], to = _to[i];
+            if (v >= from.length || dest >= from.length) {
+                return 0.0;
+            }
+            double d = from[dest] - from[v];
+            if (d > bound && d != Double.POSITIVE_INFINITY) {
+                bound = d;
+            }
+            d = to[v] - to[dest];
+            if (d > bound && d != Double.POSITIVE_INFINITY) {
+                bound = d;
+            }
+        }
+        return bound;
+    }
+
+    /** Returns the lengths of the shortest paths in the graph from
+     *  SOURCE to each vertex (if FORWARD) or from each vertex to SOURCE
+     *  (otherwise), indexed by vertex number, with infinity for those
+     *  not connected. */
+    private double[] distances(int source, boolean forward) {
+        double[] d = new double[_G.maxVertex() + 1];
+        Arrays.fill(d, Double.POSITIVE_INFINITY);
+        VertexHeap heap = new VertexHeap(_G.maxVertex());
+        d[source] = 0.0;
+        heap.put(source, 0.0);
+        while (!heap.isEmpty()) {
+            int u = heap.removeMin();
+            int degree = forward ? _G.outDegree(u) : _G.inDegree(u);
+            for (int k = 0; k < degree; k += 1) {
+                int v;
+                double w;
+                if (forward) {
+                    v = _G.successor(u, k);
+                    w = d[u] + getWeight(u, v);
+                } else {
+                    v = _G.predecessor(u, k);
+                    w = d[u] + getWeight(v, u);
+                }
+                if (w < d[v]) {
+                    d[v] = w;
+                    heap.put(v, w);
+                }
+            }
+        }
+        return d;
+    }
+
+    /** Write the landmarks and tables to the file named NAME. */
+    public void save(String name) throws IOException {
+        try (DataOutputStream out =
+             new DataOutputStream(new BufferedOutputStream(
+                 new FileOutputStream(name)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(_G.maxVertex());
+            out.writeInt(_from.length);
+            for (int i = 0; i < _from.length; i += 1) {
+                out.writeInt(_landmarks[i]);
+                for (double d : _from[i]) {
+                    out.writeDouble(d);
+                }
+                for (double d : _to[i]) {
+                    out.writeDouble(d);
+                }
+            }
+        }
+    }
+
+    /** Replace the landmarks and tables with those written by save to
+     *  the file named NAME, which must be for a graph with the same
+     *  vertices as mine. */
+    public void load(String name) throws IOException {
+        try (DataInputStream inp =
+             new DataInputStream(new BufferedInputStream(
+                 new FileInputStream(name)))) {
+            if (inp.readInt() != MAGIC) {
+                throw new IOException(name + ": not a landmark file");
+            }
+            int n = inp.readInt() + 1;
+            if (n != _G.maxVertex() + 1) {
+                throw new IOException(name + ": landmarks for another graph");
+            }
+            int k = inp.readInt();
+            int[] landmarks = new int[k];
+            double[][] from = new double[k][n], to = new double[k][n];
+            for (int i = 0; i < k; i += 1) {
+                landmarks[i] = inp.readInt();
+                for (int v = 0; v < n; v += 1) {
+                    from[i][v] = inp.readDouble();
+                }
+                for (int v = 0; v < n; v += 1) {
+                    to[i][v] = inp.readDouble();
+                }
+            }
+            _landmarks = landmarks;
+            _from = from;
+            _to = to;
+        }
+    }
+
+    /** First word of a landmark file. */
+    private static final int MAGIC = 0x414c5431;
+
+    /** The graph. */
+    private final Graph _G;
+    /** The landmarks. */
+    private int[] _landmarks;
+    /** _from[i][v] is the length of a shortest path from landmark i to
+     *  v, and _to[i][v] that of one from v to landmark i. */
+    private double[][] _from, _to;
+}
@@ -0,0 +1,336 @@
+package graph;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+/** Tests for ShortestPaths and its supporting classes.
+ *  @author tapan.jasthi
+ */
+public class PathTesting {
+
+    @Test
+    public void testVertexHeap() {
+        VertexHeap heap = new VertexHeap(4);
+        heap.put(3, 5.0);
+        heap.put(1, 2.0);
+        heap.put(9, 7.0);
+        heap.put(4, 1.0);
+        heap.put(9, 0.5);
+        heap.put(4, 6.0);
+        assertEquals(true, heap.contains(9));
+        assertEquals(0.5, heap.minKey(), 0.0);
+        ArrayList<Integer> order = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            order.add(heap.removeMin());
+        }
+        assertEquals(java.util.Arrays.asList(9, 1, 3, 4), order);
+        assertEquals(false, heap.contains(9));
+    }
+
+    @Test
+    public void testRandomShortestPaths() {
+        for (int trial = 0; trial < 2; trial += 1) {
+            Graph g = trial == 0 ? new DirectedGraph() : new UndirectedGraph();
+            double[][] w = randomGraph(g, 60, 240, new Random(trial));
+            double[] expected = bellmanFord(g, w, 1);
+            SP sp = new SP(g, 1, 0, w);
+            sp.setPaths();
+            for (int v = 1; v <= 60; v += 1) {
+                if (expected[v] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                assertEquals(expected[v], sp.getWeight(v), 1e-9);
+                double len;
+                len = 0.0;
+                int u = 0;
+                for (int x : sp.pathTo(v)) {
+                    if (u != 0) {
+                        len += w[u][x];
+                    }
+                    u = x;
+                }
+                assertEquals(expected[v], len, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void testLazyFrontier() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 1000; i += 1) {
+            g.add();
+        }
+        for (int v = 1; v < 1000; v += 1) {
+            g.add(v, v + 1);
+        }
+        int[] relaxed = new int[1];
+        ShortestPaths sp = new SimpleShortestPaths(g, 1, 3) {
+            @Override
+            protected double getWeight(int u, int v) {
+                relaxed[0] += 1;
+                return 1.0;
+            }
+        };
+        sp.setPaths();
+        assertEquals(java.util.Arrays.asList(1, 2, 3), sp.pathTo());
+        assertEquals(2, relaxed[0]);
+        assertEquals(0, sp.getPredecessor(4));
+    }
+
+    @Test
+    public void testWorkspaceReuse() {
+        DirectedGraph g = new DirectedGraph();
+        double[][] w = randomGraph(g, 40, 160, new Random(7));
+        ShortestPathsWorkspace ws = new ShortestPathsWorkspace(g);
+        int[] buf = new int[1];
+        for (int s = 1; s <= 40; s += 1) {
+            double[] expected = bellmanFord(g, w, s);
+            SP sp = new SP(g, s, 0, w, ws);
+            sp.setPaths();
+            for (int v = 1; v <= 40; v += 1) {
+                assertEquals(expected[v], sp.getWeight(v), 1e-9);
+                if (expected[v] == Double.POSITIVE_INFINITY) {
+                    assertEquals(0, sp.getPredecessor(v));
+                    continue;
+                }
+                int n = sp.pathTo(v, buf);
+                if (n > buf.length) {
+                    buf = new int[n];
+                    assertEquals(n, sp.pathTo(v, buf));
+                }
+                assertEquals(sp.pathTo(v),
+                             java.util.Arrays.asList(box(buf, n)));
+            }
+        }
+    }
+
+    @Test
+    public void testPathToUnreachable() {
+        DirectedGraph g = new DirectedGraph();
+        for (int i = 0; i < 3; i += 1) {
+            g.add();
+        }
+        g.add(1, 2);
+        double[][] w = new double[4][4];
+        w[1][2] = 1.5;
+        int[] buf = { -1, -1, -1 };
+        SP sp = new SP(g, 1, 3, w);
+        sp.setPaths();
+        assertEquals(0, sp.pathTo(3, buf));
+        assertEquals(-1, buf[0]);
+        sp.setPathsBidirectional();
+        assertEquals(0, sp.pathTo(3, buf));
+        assertEquals(-1, buf[0]);
+        sp = new SP(g, 1, 0, w);
+        sp.setPaths();
+        assertEquals(2, sp.pathTo(2, buf));
+        assertEquals(1, buf[0]);
+        assertEquals(2, buf[1]);
+        assertEquals(1, sp.pathTo(1, buf));
+        assertEquals(0, sp.pathTo(3, buf));
+    }
+
+    @Test
+    public void testBidirectional() {
+        for (int trial = 0; trial < 4; trial += 1) {
+            Graph g = trial % 2 == 0 ? new DirectedGraph()
+                : new UndirectedGraph();
+            Random rand = new Random(trial);
+            double[] x = new double[51], y = new double[51];
+            for (int v = 1; v <= 50; v += 1) {
+                x[v] = rand.nextInt(100);
+                y[v] = rand.nextInt(100);
+            }
+            double[][] w = randomGraph(g, 50, 150, rand);
+            for (int u = 1; u <= 50; u += 1) {
+                for (int v = 1; v <= 50; v += 1) {
+                    w[u][v] += Math.hypot(x[u] - x[v], y[u] - y[v]);
+                }
+            }
+            boolean useEstimate = trial >= 2;
+            for (int s = 1; s <= 50; s += 7) {
+                double[] expected = bellmanFord(g, w, s);
+                for (int t = 1; t <= 50; t += 1) {
+                    SP sp = new SP(g, s, t, w) {
+                        @Override
+                        protected double estimatedDistance(int v) {
+                            if (!useEstimate) {
+                                return 0.0;
+                            }
+                            int d = getDest();
+                            return Math.hypot(x[v] - x[d], y[v] - y[d]);
+                        }
+                    };
+                    sp.setPathsBidirectional();
+                    assertEquals(expected[t], sp.getWeight(t), 1e-9);
+                    if (expected[t] == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    double len;
+                    len = 0.0;
+                    int u = 0;
+                    for (int v : sp.pathTo()) {
+                        if (u != 0) {
+                            assertEquals(true, g.contains(u, v));
+                            len += w[u][v];
+                        }
+                        u = v;
+                    }
+                    assertEquals(expected[t], len, 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testContractionHierarchy() {
+        for (int trial = 0; trial < 2; trial += 1) {
+            Graph g = trial == 0 ? new DirectedGraph() : new UndirectedGraph();
+            double[][] w = randomGraph(g, 80, 300, new Random(trial + 5));
+            ContractionHierarchy ch = new ContractionHierarchy(g) {
+                @Override
+                protected double getWeight(int u, int v) {
+                    return w[u][v];
+                }
+            };
+            ch.contract();
+            ContractionHierarchy.Query q = ch.new Query();
+            int[] buf = new int[g.maxVertex() + 1];
+            for (int s = 1; s <= 80; s += 3) {
+                double[] expected = bellmanFord(g, w, s);
+                for (int t = 1; t <= 80; t += 1) {
+                    q.setPaths(s, t);
+                    assertEquals(expected[t], q.getWeight(), 1e-9);
+                    int n = q.pathTo(buf);
+                    if (expected[t] == Double.POSITIVE_INFINITY) {
+                        assertEquals(0, n);
+                        continue;
+                    }
+                    assertEquals(s, buf[0]);
+                    assertEquals(t, buf[n - 1]);
+                    double len;
+                    len = 0.0;
+                    for (int i = 1; i < n; i += 1) {
+                        assertEquals(true, g.contains(buf[i - 1], buf[i]));
+                        len += w[buf[i - 1]][buf[i]];
+                    }
+                    assertEquals(expected[t], len, 1e-9);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLandmarks() throws java.io.IOException {
+        DirectedGraph g = new DirectedGraph();
+        double[][] w = randomGraph(g, 60, 240, new Random(11));
+        Landmarks alt = new Landmarks(g) {
+            @Override
+            protected double getWeight(int u, int v) {
+                return w[u][v];
+            }
+        };
+        alt.selectFarthest(4);
+        assertEquals(4, alt.landmarks().length);
+        alt.compute();
+        java.io.File file = java.io.File.createTempFile("alt", ".bin");
+        file.deleteOnExit();
+        alt.save(file.getPath());
+        alt.setLandmarks();
+        alt.load(file.getPath());
+        assertEquals(true, alt.isComputed());
+        for (int s = 1; s <= 60; s += 5) {
+            double[] expected = bellmanFord(g, w, s);
+            for (int t = 1; t <= 60; t += 1) {
+                if (expected[t] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                assertEquals(true, alt.lowerBound(s, t) <= expected[t]);
+                SP sp = new SP(g, s, t, w) {
+                    @Override
+                    protected double estimatedDistance(int v) {
+                        return alt.lowerBound(v, getDest());
+                    }
+                };
+                sp.setPaths();
+                assertEquals(expected[t], sp.getWeight(t), 1e-9);
+                sp.setPathsBidirectional();
+                assertEquals(expected[t], sp.getWeight(t), 1e-9);
+            }
+        }
+    }
+
+    /** Returns A[0 .. N-1] as Integers. */
+    static Integer[] box(int[] a, int n) {
+        Integer[] result = new Integer[n];
+        for (int i = 0; i < n; i += 1) {
+            result[i] = a[i];
+        }
+        return result;
+    }
+
+    /** Fill G with N vertices and E random edges, returning their
+     *  weights, chosen using RAND. */
+    static double[][] randomGraph(Graph g, int n, int e, Random rand) {
+        double[][] w = new double[n + 1][n + 1];
+        for (int i = 0; i < n; i += 1) {
+            g.add();
+        }
+        for (int i = 0; i < e; i += 1) {
+            int u = rand.nextInt(n) + 1, v = rand.nextInt(n) + 1;
+            if (!g.contains(u, v)) {
+                g.add(u, v);
+                w[u][v] = 1 + rand.nextInt(20);
+                if (!g.isDirected()) {
+                    w[v][u] = w[u][v];
+                }
+            }
+        }
+        return w;
+    }
+
+    /** Returns the shortest distances from S in G with edge weights W,
+     *  indexed by vertex, computed by the Bellman-Ford algorithm. */
+    static double[] bellmanFord(Graph g, double[][] w, int s) {
+        double[] d = new double[g.maxVertex() + 1];
+        java.util.Arrays.fill(d, Double.POSITIVE_INFINITY);
+        d[s] = 0.0;
+        for (int i = 0; i < g.vertexSize(); i += 1) {
+            for (int u = 1; u <= g.maxVertex(); u += 1) {
+                for (int v : g.successors(u)) {
+                    d[v] = Math.min(d[v], d[u] + w[u][v]);
+                }
+            }
+        }
+        return d;
+    }
+
+    /** Shortest paths using weights from a matrix. */
+    static class SP extends SimpleShortestPaths {
+        /** Paths in G from SOURCE to DEST, with edge weights W. */
+        SP(Graph g, int source, int dest, double[][] w) {
+            super(g, source, dest);
+            _w = w;
+        }
+
+        /** Paths in G from SOURCE to DEST, with edge weights W, searched
+         *  using WORKSPACE. */
+        SP(Graph g, int source, int dest, double[][] w,
+           ShortestPathsWorkspace workspace) {
+            super(g, source, dest, workspace);
+            _w = w;
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            return _w[u][v];
+        }
+
+        /** Edge weights. */
+        private final double[][] _w;
+    }
+}
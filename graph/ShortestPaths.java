@@ -2,15 +2,16 @@ package graph;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
 
 /** The shortest paths through an edge-weighted graph.
  *  By overrriding methods getWeight, setWeight, getPredecessor, and
  *  setPredecessor, the client can determine how to represent the weighting
  *  and the search results.  By overriding estimatedDistance, clients
  *  can search for paths to specific destinations using A* search.
+ *  Point-to-point searches may also be made from both ends at once
+ *  with setPathsBidirectional.
  *  @author tapan.jasthi
  */
 public abstract class ShortestPaths {
@@ -22,56 +23,202 @@ public abstract class ShortestPaths {
 
     /** A shortest path in G from SOURCE to DEST. */
     public ShortestPaths(Graph G, int source, int dest) {
+        this(G, source, dest, new ShortestPathsWorkspace(G));
+    }
+
+    /** A shortest path in G from SOURCE to DEST, searched using the
+     *  storage in WORKSPACE, which must have been created for G.
+     *  Searching with a workspace discards the results of the previous
+     *  search that used it. */
+    public ShortestPaths(Graph G, int source, int dest,
+                         ShortestPathsWorkspace workspace) {
+        if (workspace.getGraph() != G) {
+            throw new IllegalArgumentException("workspace is for another "
+                                               + "graph");
+        }
         _G = G;
         _source = source;
         _dest = dest;
+        _workspace = workspace;
 
-        nextVertices = new PriorityQueue<>(_G.vertexSize(), new PathComparer());
+        nextVertices = workspace.heap();
+        relaxSuccessor = v -> compareWeights(expanding, v);
+        relaxForward = v -> relaxForward(expanding, v);
+        relaxBackward = u -> relaxBackward(u, expanding);
     }
 
     /** Initialize the shortest paths.  Must be called before using
-     *  getWeight, getPredecessor, and pathTo. */
+     *  getWeight, getPredecessor, and pathTo.
+     *
+     *  The frontier is filled lazily: it starts with just the source,
+     *  and other vertices join it when an edge to them is first relaxed.
+     *  Vertices never reached are never touched, so a search for a
+     *  nearby destination costs time proportional to the region it
+     *  explores, not to the size of the graph.  Until it is reached,
+     *  each vertex other than the source must have infinite weight, as
+     *  in SimpleShortestPaths.  Once a vertex is expanded it is settled,
+     *  and edges into it are not relaxed again; this requires that
+     *  estimatedDistance be consistent as well as admissible (see
+     *  there). */
     public void setPaths() {
-        setWeight(getDest(), Integer.MAX_VALUE);
+        _workspace.reset();
 
         setWeight(getSource(), 0);
         setPredecessor(getSource(), 0);
 
-        for (int vertex : _G.vertices()) {
-            nextVertices.add(vertex);
-        }
+        nextVertices.put(getSource(), priority(getSource()));
         while (!nextVertices.isEmpty()) {
-            int vert = nextVertices.remove();
+            int vert = nextVertices.removeMin();
+            _workspace.settle(vert);
             if (vert == _dest) {
                 return;
             }
-            for (int child : _G.successors(vert)) {
-                compareWeights(vert, child);
+            expanding = vert;
+            _G.forEachSuccessor(vert, relaxSuccessor);
+        }
+    }
+
+    /** Find a shortest path from the source to the destination, which
+     *  must be nonzero, by searching forward from the source over
+     *  successors and backward from the destination over predecessors
+     *  until the two searches meet.  Afterwards, getWeight and
+     *  getPredecessor are valid for every vertex on the path found, so
+     *  that pathTo() gives the path, but not necessarily for other
+     *  vertices.  Edge weights come from getWeight(U, V), as for
+     *  setPaths.
+     *
+     *  The heuristic estimatedDistance is applied through the potentials
+     *  p(V) = estimatedDistance(V) / 2 in the forward search and -p(V)
+     *  in the backward one, which are consistent whenever
+     *  estimatedDistance is.  The searches stop when the sum of the
+     *  smallest keys in the two frontiers is no less than the length of
+     *  the best path seen; at that point no path through an unsettled
+     *  vertex can be shorter. */
+    public void setPathsBidirectional() {
+        if (_dest == 0) {
+            throw new IllegalArgumentException("no destination vertex");
+        }
+        ShortestPathsWorkspace back = _workspace.reverse();
+        VertexHeap backVertices = back.heap();
+        _workspace.reset();
+
+        setWeight(getSource(), 0);
+        setPredecessor(getSource(), 0);
+        nextVertices.put(getSource(), potential(getSource()));
+        back.setWeight(_dest, 0);
+        back.setPredecessor(_dest, 0);
+        backVertices.put(_dest, -potential(_dest));
+
+        bestLength = Double.POSITIVE_INFINITY;
+        if (getSource() == _dest) {
+            bestLength = 0.0;
+            meetForward = meetBackward = _dest;
+        }
+        while (!nextVertices.isEmpty() && !backVertices.isEmpty()
+               && nextVertices.minKey() + backVertices.minKey()
+                  < bestLength) {
+            if (nextVertices.minKey() <= backVertices.minKey()) {
+                expanding = nextVertices.removeMin();
+                _workspace.settle(expanding);
+                _G.forEachSuccessor(expanding, relaxForward);
+            } else {
+                expanding = backVertices.removeMin();
+                back.settle(expanding);
+                _G.forEachPredecessor(expanding, relaxBackward);
+            }
+        }
+        if (bestLength < Double.POSITIVE_INFINITY) {
+            joinPaths(back, meetForward, meetBackward);
+        }
+    }
+
+    /** Relax edge (U, V) in the forward half of a bidirectional search,
+     *  recording the path through it if it is the best yet. */
+    private void relaxForward(int u, int v) {
+        ShortestPathsWorkspace back = _workspace.reverse();
+        double w = getWeight(u) + getWeight(u, v);
+        checkMeeting(u, v, w + back.getWeight(v));
+        if (!_workspace.isSettled(v) && w < getWeight(v)) {
+            setWeight(v, w);
+            setPredecessor(v, u);
+            nextVertices.put(v, w + potential(v));
+        }
+    }
+
+    /** Relax edge (U, V) in the backward half of a bidirectional
+     *  search, recording the path through it if it is the best yet. */
+    private void relaxBackward(int u, int v) {
+        ShortestPathsWorkspace back = _workspace.reverse();
+        double w = back.getWeight(v) + getWeight(u, v);
+        checkMeeting(u, v, getWeight(u) + w);
+        if (!back.isSettled(u) && w < back.getWeight(u)) {
+            back.setWeight(u, w);
+            back.setPredecessor(u, v);
+            back.heap().put(u, w - potential(u));
+        }
+    }
+
+    /** Record the path through edge (U, V), of length LENGTH, as the
+     *  best seen by a bidirectional search if it is shorter than the
+     *  previous best. */
+    private void checkMeeting(int u, int v, double length) {
+        if (length < bestLength) {
+            bestLength = length;
+            meetForward = u;
+            meetBackward = v;
+        }
+    }
+
+    /** Extend the forward search's path to X along the backward
+     *  search's path from Y, where Y is X or a successor of X, so that
+     *  the predecessors and weights of vertices out to the destination
+     *  describe the joined path.  BACK holds the backward search. */
+    private void joinPaths(ShortestPathsWorkspace back, int x, int y) {
+        while (x != _dest) {
+            if (y != x) {
+                setWeight(y, getWeight(x) + getWeight(x, y));
+                setPredecessor(y, x);
+                x = y;
             }
+            y = back.getPredecessor(x);
         }
     }
 
+    /** Returns the forward potential of V in a bidirectional search. */
+    private double potential(int v) {
+        return estimatedDistance(v) / 2;
+    }
+
     /** Examines the weight of the path of the given path
      * from predecessor to successor. If the weight based on
      * the heuristic and path length is less than the initial
-     * weight, the path is updated and the next vertex is
-     * added to the priority queue with its new weight.
+     * weight, the path is updated and the next vertex's
+     * priority is decreased (adding it to the queue if needed).
      * Helper for the setPaths method.
      * @param predecessor is the start vertex.
      * @param successor is the second vertex.
      */
     private void compareWeights(int predecessor, int successor) {
+        if (_workspace.isSettled(successor)) {
+            return;
+        }
         double samplePath = getWeight(predecessor)
                 + getWeight(predecessor, successor);
         if (samplePath < getWeight(successor)) {
             setWeight(successor, samplePath);
             setPredecessor(successor, predecessor);
 
-            nextVertices.remove(successor);
-            nextVertices.add(successor);
+            nextVertices.put(successor, priority(successor));
         }
     }
 
+    /** Returns the priority of V in the queue of vertices to be expanded:
+     *  its current weight plus its estimated distance to the
+     *  destination. */
+    private double priority(int v) {
+        return getWeight(v) + estimatedDistance(v);
+    }
+
     /** Returns the starting vertex. */
     public int getSource() {
         return _source;
@@ -82,6 +229,18 @@ public abstract class ShortestPaths {
         return _dest;
     }
 
+    /** Returns the number of vertices settled by the last search, in
+     *  both directions for setPathsBidirectional.  This measures how
+     *  much of the graph the search explored. */
+    public int settledCount() {
+        return _workspace.settledCount();
+    }
+
+    /** Returns the workspace holding my search state. */
+    ShortestPathsWorkspace workspace() {
+        return _workspace;
+    }
+
     /** Returns the current weight of vertex V in the graph.  If V is
      *  not in the graph, returns positive infinity. */
     public abstract double getWeight(int v);
@@ -98,7 +257,10 @@ public abstract class ShortestPaths {
 
     /** Returns an estimated heuristic weight of the shortest path from vertex
      *  V to the destination vertex (if any).  This is assumed to be less
-     *  than the actual weight, and is 0 by default. */
+     *  than the actual weight, and is 0 by default.  It is also assumed
+     *  to be consistent: for each edge (U, V), estimatedDistance(U) is
+     *  at most getWeight(U, V) + estimatedDistance(V).  Straight-line
+     *  distance on a map is an example. */
     protected double estimatedDistance(int v) {
         return 0.0;
     }
@@ -124,6 +286,37 @@ public abstract class ShortestPaths {
         return pathway;
     }
 
+    /** Store the vertices of a shortest path to V, starting at _source
+     *  and ending at V, in BUF[0 .. n-1], where n is the number of
+     *  vertices on the path, and return n.  If BUF is shorter than n,
+     *  leaves it unchanged, so that the caller may retry with a buffer
+     *  of length n.  Returns 0, leaving BUF unchanged, if V was not
+     *  reached from _source: that is, if getWeight(V) is infinite or
+     *  V's predecessors do not lead back to _source.  Invalid if there
+     *  is a destination vertex other than V. */
+    public int pathTo(int v, int[] buf) {
+        if (getWeight(v) == Double.POSITIVE_INFINITY) {
+            return 0;
+        }
+        int n;
+        n = 1;
+        int x;
+        for (x = v; x != getSource() && x != 0; x = getPredecessor(x)) {
+            n += 1;
+        }
+        if (x == 0) {
+            return 0;
+        }
+        if (n <= buf.length) {
+            x = v;
+            for (int k = n - 1; k >= 0; k -= 1) {
+                buf[k] = x;
+                x = getPredecessor(x);
+            }
+        }
+        return n;
+    }
+
     /**
      * Returns a list of vertices starting at the source and ending at the
      * destination vertex. Invalid if the destination is not specified.
@@ -132,23 +325,6 @@ public abstract class ShortestPaths {
         return pathTo(getDest());
     }
 
-    /** Comparing class for the Priorityqueue. */
-    class PathComparer implements Comparator<Integer> {
-        /** Comparing paths based on weight and heuristic. */
-        @Override
-        public int compare(Integer spot1, Integer spot2) {
-            double firstValue = getWeight(spot1) + estimatedDistance(spot1);
-            double secondValue = getWeight(spot2) + estimatedDistance(spot2);
-            if (firstValue == secondValue) {
-                return 0;
-            }
-            if (firstValue < secondValue) {
-                return -1;
-            }
-            return 1;
-        }
-    }
-
     /** The graph being searched. */
     protected final Graph _G;
     /** The starting vertex. */
@@ -156,6 +332,26 @@ public abstract class ShortestPaths {
     /** The target vertex. */
     private final int _dest;
 
-    /** Priorityqueue to get the next shortest path. */
-    private PriorityQueue<Integer> nextVertices;
+    /** The vertex whose successors are being relaxed. */
+    private int expanding;
+    /** Callback for forEachSuccessor that relaxes the edge from
+     *  expanding to its argument. */
+    private final IntConsumer relaxSuccessor;
+
+    /** Callbacks for forEachSuccessor and forEachPredecessor that relax
+     *  the edge between expanding and its argument in the forward and
+     *  backward halves of a bidirectional search. */
+    private final IntConsumer relaxForward, relaxBackward;
+    /** The length of the shortest path seen by a bidirectional search,
+     *  and the edge (meetForward, meetBackward) at which it joins the
+     *  forward and backward searches. */
+    private double bestLength;
+    /** See bestLength. */
+    private int meetForward, meetBackward;
+
+    /** Storage for the frontier and the settled vertices (and, in
+     *  SimpleShortestPaths, the weights and predecessors). */
+    private final ShortestPathsWorkspace _workspace;
+    /** Vertices to be expanded, keyed by priority. */
+    private final VertexHeap nextVertices;
 }
@@ -0,0 +1,164 @@
+package graph;
+
+import java.util.Arrays;
+
+/** Working storage for shortest-path searches: the frontier heap, the
+ *  set of settled vertices, and (for SimpleShortestPaths) the weight and
+ *  predecessor of each vertex reached.  A workspace may be handed to
+ *  any number of ShortestPaths objects in turn, so that a program
+ *  making many queries on one graph allocates its arrays once.
+ *
+ *  Entries are stamped with the number of the search that wrote them,
+ *  and entries with an old stamp read as unreached.  Starting a new
+ *  search therefore takes time proportional only to the vertices left
+ *  in the frontier by the previous one, not to the size of the graph.
+ *  A workspace holds the results of only the most recent search that
+ *  used it, and may be used by only one thread at a time.
+ *  @author tapan.jasthi
+ */
+public class ShortestPathsWorkspace {
+
+    /** A workspace for searches of G. */
+    public ShortestPathsWorkspace(Graph G) {
+        int n = G.maxVertex() + 1;
+        _G = G;
+        weights = new double[n];
+        predecessors = new int[n];
+        reached = new int[n];
+        settled = new int[n];
+        heap = new VertexHeap(G.maxVertex());
+    }
+
+    /** Start a new search, forgetting all results of the previous one. */
+    void reset() {
+        if (reverse != null) {
+            reverse.reset();
+        }
+        heap.clear();
+        settledCount = 0;
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            epoch = 0;
+        }
+        epoch += 1;
+    }
+
+    /** Returns the graph I was created for. */
+    Graph getGraph() {
+        return _G;
+    }
+
+    /** Returns a second workspace for the same graph, holding the
+     *  backward half of a bidirectional search, in which the
+     *  "predecessor" of a vertex is its successor on the path to the
+     *  destination.  It is created on first use and reset with me. */
+    ShortestPathsWorkspace reverse() {
+        if (reverse == null) {
+            reverse = new ShortestPathsWorkspace(_G);
+        }
+        return reverse;
+    }
+
+    /** Returns the frontier of the current search. */
+    VertexHeap heap() {
+        return heap;
+    }
+
+    /** Returns the weight of V recorded by the current search, or
+     *  positive infinity if there is none. */
+    double getWeight(int v) {
+        if (v < 0 || v >= reached.length || reached[v] != epoch) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return weights[v];
+    }
+
+    /** Record W as the weight of V in the current search. */
+    void setWeight(int v, double w) {
+        reach(v);
+        weights[v] = w;
+    }
+
+    /** Returns the predecessor of V recorded by the current search, or 0
+     *  if there is none. */
+    int getPredecessor(int v) {
+        if (v < 0 || v >= reached.length || reached[v] != epoch) {
+            return 0;
+        }
+        return predecessors[v];
+    }
+
+    /** Record U as the predecessor of V in the current search. */
+    void setPredecessor(int v, int u) {
+        reach(v);
+        predecessors[v] = u;
+    }
+
+    /** Returns true iff V has been settled by the current search. */
+    boolean isSettled(int v) {
+        return v < settled.length && settled[v] == epoch;
+    }
+
+    /** Record that V has been settled by the current search. */
+    void settle(int v) {
+        ensureCapacity(v);
+        settled[v] = epoch;
+        settledCount += 1;
+    }
+
+    /** Returns the number of vertices settled by the current search,
+     *  including those settled in reverse(). */
+    int settledCount() {
+        return settledCount + (reverse == null ? 0 : reverse.settledCount);
+    }
+
+    /** Make sure V has entries that are valid for the current search,
+     *  initializing them to an infinite weight and no predecessor if
+     *  V has not yet been reached. */
+    private void reach(int v) {
+        ensureCapacity(v);
+        if (reached[v] != epoch) {
+            reached[v] = epoch;
+            weights[v] = Double.POSITIVE_INFINITY;
+            predecessors[v] = 0;
+        }
+    }
+
+    /** Expand my arrays, if necessary, so that they have an entry
+     *  for V. */
+    private void ensureCapacity(int v) {
+        if (v >= reached.length) {
+            int n = Math.max(v + 1, _G.maxVertex() + 1);
+            weights = Arrays.copyOf(weights, n);
+            predecessors = Arrays.copyOf(predecessors, n);
+            reached = Arrays.copyOf(reached, n);
+            settled = Arrays.copyOf(settled, n);
+        }
+    }
+
+    /** The graph searched. */
+    private final Graph _G;
+    /** Vertices to be expanded, keyed by priority. */
+    private final VertexHeap heap;
+    /** Storage for backward searches, or null if none has been made. */
+    private ShortestPathsWorkspace reverse;
+    /** Indexed by vertex number: the weight of the shortest path found
+     *  so far to the vertex, valid if its reached entry is epoch. */
+    private double[] weights;
+    /** Indexed by vertex number: the vertex's predecessor on that path,
+     *  valid if its reached entry is epoch. */
+    private int[] predecessors;
+    /** Indexed by vertex number: equal to epoch iff the vertex has been
+     *  reached by the current search. */
+    private int[] reached;
+    /** Indexed by vertex number: equal to epoch iff the vertex has been
+     *  settled by the current search. */
+    private int[] settled;
+    /** Number of vertices settled by the current search. */
+    private int settledCount;
+    /** The number of the current search.  Entries of reached and
+     *  settled start at 0, so that nothing reads as reached before the
+     *  first search. */
+    private int epoch = 1;
+}
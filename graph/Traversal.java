@@ -1,9 +1,9 @@
 package graph;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Queue;
+import java.util.function.IntConsumer;
 
 /** Implements a generalized traversal of a graph.  At any given time,
  *  there is a particular collection of untraversed vertices---the "fringe."
@@ -32,14 +32,21 @@ public abstract class Traversal {
         _G = G;
         _fringe = fringe;
 
-        markedVerts = new ArrayList<>();
-        postVerts = new ArrayList<>();
+        markedVerts = new int[G.maxVertex() + 1];
+        postVerts = new int[G.maxVertex() + 1];
+        epoch = 1;
+        _scheduleSuccessor = this::scheduleSuccessor;
     }
 
-    /** Unmark all vertices in the graph. */
+    /** Unmark all vertices in the graph.  This takes constant time: it
+     *  simply starts a new epoch, in which no vertex has been stamped. */
     public void clear() {
-        ArrayList<Integer> removeMe = markedVerts;
-        markedVerts.removeAll(removeMe);
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(markedVerts, 0);
+            Arrays.fill(postVerts, 0);
+            epoch = 0;
+        }
+        epoch += 1;
     }
 
     /** Initialize the fringe to V0 and perform a traversal. */
@@ -51,8 +58,8 @@ public abstract class Traversal {
 
             if (!marked(nextVert)) {
                 visitVert(nextVert);
-            } else if (!postVerts.contains(nextVert)) {
-                postVerts.add(nextVert);
+            } else if (!postVisited(nextVert)) {
+                postVerts = stamp(postVerts, nextVert);
                 postVisit(nextVert);
             }
         }
@@ -66,11 +73,15 @@ public abstract class Traversal {
         visit(nextVert);
         mark(nextVert);
 
-        Iteration<Integer> children = _G.successors(nextVert);
-        for (int child : children) {
-            if (!marked(child)) {
-                _fringe.add(child);
-            }
+        _G.forEachSuccessor(nextVert, _scheduleSuccessor);
+    }
+
+    /** Adds successor V of the vertex being visited to the fringe, if
+     *  it is unmarked.  Helper to visitVert.
+     *  @param v is the successor. */
+    private void scheduleSuccessor(int v) {
+        if (!marked(v)) {
+            _fringe.add(v);
         }
     }
 
@@ -81,12 +92,28 @@ public abstract class Traversal {
 
     /** Returns true iff V has been marked. */
     protected boolean marked(int v) {
-        return markedVerts.contains(v);
+        return v < markedVerts.length && markedVerts[v] == epoch;
     }
 
     /** Mark vertex V. */
     protected void mark(int v) {
-        markedVerts.add(v);
+        markedVerts = stamp(markedVerts, v);
+    }
+
+    /** Returns true iff V has been post-visited since the last clear. */
+    private boolean postVisited(int v) {
+        return v < postVerts.length && postVerts[v] == epoch;
+    }
+
+    /** Set STAMPS[V] to the current epoch, first expanding STAMPS if
+     *  the graph has grown past it.  Returns the (possibly new) array. */
+    private int[] stamp(int[] stamps, int v) {
+        if (v >= stamps.length) {
+            stamps = Arrays.copyOf(stamps,
+                                   Math.max(v + 1, _G.maxVertex() + 1));
+        }
+        stamps[v] = epoch;
+        return stamps;
     }
 
     /** Perform a visit on vertex V.  Returns false iff the traversal is to
@@ -126,8 +153,16 @@ public abstract class Traversal {
     /** The fringe. */
     protected final Queue<Integer> _fringe;
 
-    /** ArrayList to store visited vertices. */
-    private ArrayList<Integer> markedVerts;
-    /** ArrayList to store postvisited vertices. */
-    private ArrayList<Integer> postVerts;
+    /** scheduleSuccessor, as a reusable callback for forEachSuccessor. */
+    private final IntConsumer _scheduleSuccessor;
+
+    /** Indexed by vertex number: equal to epoch iff the vertex is
+     *  marked. */
+    private int[] markedVerts;
+    /** Indexed by vertex number: equal to epoch iff the vertex has been
+     *  postvisited. */
+    private int[] postVerts;
+    /** The current epoch.  Incremented by clear, which thereby unmarks
+     *  every vertex. */
+    private int epoch;
 }
@@ -3,6 +3,7 @@ package graph;
 import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.junit.Test;
 
@@ -62,6 +63,28 @@ public class TraversalTesting {
         assertEquals(current.getpostVisited(), pathway);
     }
 
+    @Test
+    public void testClearAndGrow() {
+        DirectedGraph dGraph = new DirectedGraph();
+        dGraph.add();
+        dGraph.add();
+        dGraph.add(1, 2);
+
+        DFS current = new DFS(dGraph);
+        current.traverse(1);
+        dGraph.add();
+        dGraph.add();
+        dGraph.add(2, 3);
+        dGraph.add(3, 4);
+        current.traverse(1);
+        assertEquals(Arrays.asList(1, 2), current.getVisited());
+        current.clear();
+        current.traverse(1);
+        assertEquals(Arrays.asList(1, 2, 1, 2, 3, 4), current.getVisited());
+        assertEquals(Arrays.asList(2, 1, 4, 3, 2, 1),
+                     current.getpostVisited());
+    }
+
     class DFS extends DepthFirstTraversal {
         DFS(Graph G) {
             super(G);
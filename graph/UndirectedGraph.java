@@ -1,5 +1,7 @@
 package graph;
 
+import java.util.function.IntConsumer;
+
 /** Represents an undirected graph.  Out edges and in edges are not
  *  distinguished.  Likewise for successors and predecessors.
  *
@@ -7,6 +9,16 @@ package graph;
  */
 public class UndirectedGraph extends GraphObj {
 
+    /** An empty undirected graph. */
+    public UndirectedGraph() {
+    }
+
+    /** An empty undirected graph with room for VERTICES vertices and EDGES
+     *  edges before its tables must grow. */
+    public UndirectedGraph(int vertices, int edges) {
+        super(vertices, edges);
+    }
+
     @Override
     public boolean isDirected() {
         return false;
@@ -27,4 +39,9 @@ public class UndirectedGraph extends GraphObj {
         return successors(v);
     }
 
+    @Override
+    public void forEachPredecessor(int v, IntConsumer action) {
+        forEachSuccessor(v, action);
+    }
+
 }
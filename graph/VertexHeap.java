@@ -0,0 +1,137 @@
+package graph;
+
+import java.util.Arrays;
+
+/** An indexed binary min-heap of vertex numbers keyed by doubles, used
+ *  as the frontier of ShortestPaths.  Keys are cached in the heap, so
+ *  comparisons do not call back to the client, and each vertex's
+ *  position is recorded, so that its key can be changed in O(log N)
+ *  time rather than by removing and reinserting it.  Nothing is boxed.
+ *  @author tapan.jasthi
+ */
+class VertexHeap {
+
+    /** An empty heap, initially sized for vertices 1 .. MAXVERTEX. */
+    VertexHeap(int maxVertex) {
+        int n = Math.max(maxVertex, 1);
+        heap = new int[n];
+        keys = new double[n];
+        position = new int[maxVertex + 1];
+    }
+
+    /** Returns true iff I am empty. */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Returns the number of vertices in me. */
+    int size() {
+        return size;
+    }
+
+    /** Returns true iff V is in me. */
+    boolean contains(int v) {
+        return v < position.length && position[v] != 0;
+    }
+
+    /** Returns the key of my first vertex.  Assumes I am not empty. */
+    double minKey() {
+        return keys[0];
+    }
+
+    /** Returns my vertex with the smallest key, without removing it.
+     *  Assumes I am not empty. */
+    int peek() {
+        return heap[0];
+    }
+
+    /** Set the key of V to KEY, adding V if it is not already in me. */
+    void put(int v, double key) {
+        if (!contains(v)) {
+            if (v >= position.length) {
+                int n = Math.max(v + 1, 2 * position.length);
+                position = Arrays.copyOf(position, n);
+            }
+            if (size == heap.length) {
+                heap = Arrays.copyOf(heap, 2 * size);
+                keys = Arrays.copyOf(keys, 2 * size);
+            }
+            size += 1;
+            siftUp(size - 1, v, key);
+        } else {
+            int k = position[v] - 1;
+            if (key < keys[k]) {
+                siftUp(k, v, key);
+            } else {
+                siftDown(k, v, key);
+            }
+        }
+    }
+
+    /** Remove and return my vertex with the smallest key.  Assumes I am
+     *  not empty. */
+    int removeMin() {
+        int result = heap[0];
+        position[result] = 0;
+        size -= 1;
+        if (size > 0) {
+            siftDown(0, heap[size], keys[size]);
+        }
+        return result;
+    }
+
+    /** Remove all vertices from me.  Takes time proportional to my
+     *  size. */
+    void clear() {
+        for (int k = 0; k < size; k += 1) {
+            position[heap[k]] = 0;
+        }
+        size = 0;
+    }
+
+    /** Place V, with key KEY, at position K or above it, moving larger
+     *  parents down. */
+    private void siftUp(int k, int v, double key) {
+        while (k > 0 && keys[(k - 1) / 2] > key) {
+            int parent = (k - 1) / 2;
+            place(k, heap[parent], keys[parent]);
+            k = parent;
+        }
+        place(k, v, key);
+    }
+
+    /** Place V, with key KEY, at position K or below it, moving smaller
+     *  children up. */
+    private void siftDown(int k, int v, double key) {
+        while (2 * k + 1 < size) {
+            int c = 2 * k + 1;
+            if (c + 1 < size && keys[c + 1] < keys[c]) {
+                c += 1;
+            }
+            if (keys[c] >= key) {
+                break;
+            }
+            place(k, heap[c], keys[c]);
+            k = c;
+        }
+        place(k, v, key);
+    }
+
+    /** Put V, with key KEY, at position K. */
+    private void place(int k, int v, double key) {
+        heap[k] = v;
+        keys[k] = key;
+        position[v] = k + 1;
+    }
+
+    /** The heap, in positions 0 .. size-1.  The vertex at K has a key no
+     *  larger than those at 2K+1 and 2K+2. */
+    private int[] heap;
+    /** keys[k] is the key of heap[k]. */
+    private double[] keys;
+    /** Indexed by vertex number: one more than the vertex's position in
+     *  heap, or 0 if it is not in me. */
+    private int[] position;
+    /** Number of vertices in me. */
+    private int size;
+}
@@ -60,7 +60,8 @@ class Rule {
     /** Check that dependencies are in fact built before it's time to rebuild
      *  a node. */
     private void checkFinishedDependencies() {
-        for (int succ : _depends.successors(_vertex)) {
+        for (int k = 0; k < _depends.outDegree(_vertex); k += 1) {
+            int succ = _depends.successor(_vertex, k);
             if (_depends.getLabel(succ).isUnfinished()) {
                 error("error: Unfinished dependencies.");
             }
@@ -75,7 +76,8 @@ class Rule {
             if (_time == null) {
                 return true;
             } else {
-                for (int i : _depends.successors(_vertex)) {
+                for (int k = 0; k < _depends.outDegree(_vertex); k += 1) {
+                    int i = _depends.successor(_vertex, k);
                     if (_time < _depends.getLabel(i).getTime()) {
                         return true;
                     }
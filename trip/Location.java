@@ -14,6 +14,16 @@ class Location {
         _y = y;
     }
 
+    /** Returns my x coordinate. */
+    double x() {
+        return _x;
+    }
+
+    /** Returns my y coordinate. */
+    double y() {
+        return _y;
+    }
+
     /** Return the distance between me and Y. */
     double dist(Location y) {
         double dx = _x - y._x;
@@ -0,0 +1,198 @@
+package trip;
+
+import java.util.Arrays;
+
+/** A spatial index of the positions of locations, which finds the
+ *  location nearest a point and those within a given distance of one.
+ *  It is a k-d tree stored implicitly in arrays: the entries in [LO, HI)
+ *  form a subtree whose root is at the middle index, split on x at even
+ *  depths and on y at odd ones, with entries no greater on the split
+ *  coordinate before the root and none less after it.  Building takes
+ *  O(N lg N) time, and nearest-location queries take O(lg N) on
+ *  typical maps.  The index is not changed once built, and may be
+ *  searched by any number of threads at once.
+ *  @author tapan.jasthi
+ */
+class LocationIndex {
+
+    /** An index of the locations VERTICES, where the position of each
+     *  v is (XS[v], YS[v]). */
+    LocationIndex(int[] vertices, double[] xs, double[] ys) {
+        int n = vertices.length;
+        _v = vertices.clone();
+        _x = new double[n];
+        _y = new double[n];
+        for (int i = 0; i < n; i += 1) {
+            _x[i] = xs[_v[i]];
+            _y[i] = ys[_v[i]];
+        }
+        build(0, n, 0);
+    }
+
+    /** Returns the number of locations indexed. */
+    int size() {
+        return _v.length;
+    }
+
+    /** Returns the location nearest to (X, Y), preferring the lowest
+     *  numbered of equally near ones, or 0 if there are none. */
+    int nearest(double x, double y) {
+        Nearest result = new Nearest();
+        nearest(0, _v.length, 0, x, y, result);
+        return result.vertex;
+    }
+
+    /** Returns the locations within distance R of (X, Y), in increasing
+     *  order. */
+    int[] within(double x, double y, double r) {
+        Found result = new Found();
+        within(0, _v.length, 0, x, y, r, result);
+        int[] found = Arrays.copyOf(result.vertices, result.size);
+        Arrays.sort(found);
+        return found;
+    }
+
+    /** Arrange entries [LO, HI) into a subtree at depth DEPTH. */
+    private void build(int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        select(lo, hi, mid, depth % 2 == 0 ? _x : _y);
+        build(lo, mid, depth + 1);
+        build(mid + 1, hi, depth + 1);
+    }
+
+    /** Reorder entries [LO, HI) so that entry K has the value it would
+     *  have if they were sorted by KEY, with none greater before it and
+     *  none less after it. */
+    private void select(int lo, int hi, int k, double[] key) {
+        hi -= 1;
+        while (hi > lo) {
+            double pivot = key[(lo + hi) >>> 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (key[i] < pivot) {
+                    i += 1;
+                }
+                while (key[j] > pivot) {
+                    j -= 1;
+                }
+                if (i <= j) {
+                    swap(i, j);
+                    i += 1;
+                    j -= 1;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /** Exchange entries I and J. */
+    private void swap(int i, int j) {
+        int v = _v[i];
+        _v[i] = _v[j];
+        _v[j] = v;
+        double t = _x[i];
+        _x[i] = _x[j];
+        _x[j] = t;
+        t = _y[i];
+        _y[i] = _y[j];
+        _y[j] = t;
+    }
+
+    /** Update RESULT to the nearest location to (X, Y) found so far
+     *  among it and the subtree [LO, HI) at depth DEPTH. */
+    private void nearest(int lo, int hi, int depth, double x, double y,
+                         Nearest result) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = x - _x[mid], dy = y - _y[mid];
+        result.offer(_v[mid], dx * dx + dy * dy);
+        double diff = depth % 2 == 0 ? dx : dy;
+        if (diff < 0) {
+            nearest(lo, mid, depth + 1, x, y, result);
+            if (diff * diff <= result.distance) {
+                nearest(mid + 1, hi, depth + 1, x, y, result);
+            }
+        } else {
+            nearest(mid + 1, hi, depth + 1, x, y, result);
+            if (diff * diff <= result.distance) {
+                nearest(lo, mid, depth + 1, x, y, result);
+            }
+        }
+    }
+
+    /** Add to RESULT the locations of the subtree [LO, HI) at depth
+     *  DEPTH that are within R of (X, Y). */
+    private void within(int lo, int hi, int depth, double x, double y,
+                        double r, Found result) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = x - _x[mid], dy = y - _y[mid];
+        if (dx * dx + dy * dy <= r * r) {
+            result.add(_v[mid]);
+        }
+        double diff = depth % 2 == 0 ? dx : dy;
+        if (diff <= r) {
+            within(lo, mid, depth + 1, x, y, r, result);
+        }
+        if (diff >= -r) {
+            within(mid + 1, hi, depth + 1, x, y, r, result);
+        }
+    }
+
+    /** The best candidate in a search for a nearest location. */
+    private static class Nearest {
+        /** Consider location V, whose squared distance from the point
+         *  sought is D. */
+        void offer(int v, double d) {
+            if (vertex == 0 || d < distance
+                || (d == distance && v < vertex)) {
+                vertex = v;
+                distance = d;
+            }
+        }
+
+        /** The nearest location so far, or 0 if none. */
+        private int vertex;
+        /** The squared distance of vertex from the point sought, or
+         *  infinity if there is none. */
+        private double distance = Double.POSITIVE_INFINITY;
+    }
+
+    /** The locations found by a search within a distance. */
+    private static class Found {
+        /** Add location V. */
+        void add(int v) {
+            if (size == vertices.length) {
+                vertices = Arrays.copyOf(vertices, 2 * size);
+            }
+            vertices[size] = v;
+            size += 1;
+        }
+
+        /** The locations found, in vertices[0 .. size-1]. */
+        private int[] vertices = new int[INITIAL_RESULT];
+        /** See vertices. */
+        private int size;
+    }
+
+    /** Initial length of the results of within. */
+    private static final int INITIAL_RESULT = 16;
+
+    /** The locations, in tree order. */
+    private final int[] _v;
+    /** The coordinates of the locations in _v. */
+    private final double[] _x, _y;
+}
@@ -1,8 +1,15 @@
 package trip;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -18,17 +25,38 @@ public final class Main {
 
     /** Entry point for the CS61B trip program.  RAWARGS may contain options
      *  and targets:
-     *      [ -m MAP ] [ -o OUT ] [ REQUEST ]
+     *      [ -m MAP ] [ -o OUT ] [ -c IMAGE ] [ -s PORT | -b BATCH ] [ -p ]
+     *      [ -l K ] [ -r N ] [ -v ] [ REQUEST ]
      *  where MAP (default Map) contains the map data, OUT (default standard
      *  output) takes the result, and REQUEST (default standard input) contains
-     *  the locations along the requested trip.
+     *  the locations along the requested trip.  A location may be given
+     *  as @X,Y, meaning the one nearest the point (X, Y), unless some
+     *  location is actually named @X,Y.  With -c, the map is also
+     *  compiled into a binary image in IMAGE, and REQUEST may be
+     *  omitted.
+     *  MAP may itself be such an image, which loads much faster.  With -s,
+     *  there is no REQUEST, and the program instead serves requests for
+     *  trips, one per line, on local port PORT, or on the standard input
+     *  and output if PORT is "-", as described for Server.  With -b,
+     *  there is no REQUEST, and the program instead reports on OUT the
+     *  trip for each line of the file BATCH (the standard input if it is
+     *  "-"), in order, with the error message in place of any that
+     *  fail.  With -p,
+     *  the map is first preprocessed into a contraction hierarchy, which
+     *  pays off when a trip has many legs.  With -l, searches are directed
+     *  using distance tables for K landmarks.  With -r, the last N routes
+     *  planned are cached for reuse by later requests.  With -v, the
+     *  number of vertices settled in planning each leg is reported on the
+     *  standard error, along with the counts of the route cache at the
+     *  end.
      */
     public static void main(String... rawArgs) {
         String mapFileName;
         String outFileName;
         List<String> targets;
         CommandArgs args =
-            new CommandArgs("-m={0,1} -o={0,1} --={2,}", rawArgs);
+            new CommandArgs("-m={0,1} -o={0,1} -c={0,1} -s={0,1} -b={0,1}"
+                            + " -p -l={0,1} -r={0,1} -v --={0,}", rawArgs);
 
         if (!args.ok()) {
             usage();
@@ -37,19 +65,129 @@ public final class Main {
         mapFileName = args.getFirst("-m", "Map");
         outFileName = args.getFirst("-o");
         targets = args.get("--");
+        boolean compiling = args.contains("-c"),
+            serving = args.contains("-s"), batch = args.contains("-b");
+        if (serving && batch) {
+            usage();
+        }
+        if (serving || batch ? !targets.isEmpty()
+            : targets.size() < 2 && !(compiling && targets.isEmpty())) {
+            usage();
+        }
+        int port = serving ? port(args.getFirst("-s")) : -1;
         setFiles(outFileName);
 
         Trip trip = new Trip();
+        if (args.contains("-v")) {
+            trip.setLog(System.err);
+        }
 
         try {
             trip.readMap(mapFileName);
-            trip.makeTrip(targets);
+            if (compiling) {
+                trip.compile(args.getFirst("-c"));
+                if (targets.isEmpty() && !serving && !batch) {
+                    return;
+                }
+            }
+            if (args.contains("-p")) {
+                trip.contract();
+            }
+            if (args.contains("-l")) {
+                trip.useLandmarks(count(args.getFirst("-l")));
+            }
+            if (args.contains("-r")) {
+                trip.cacheRoutes(count(args.getFirst("-r")));
+            }
+            if (serving) {
+                serve(trip, port);
+            } else if (batch) {
+                batch(trip, args.getFirst("-b"));
+            } else {
+                StringBuilder report = new StringBuilder();
+                trip.makeTrip(targets, report);
+                System.out.print(report);
+            }
+            if (args.contains("-v") && trip.routeCache() != null) {
+                System.err.println(trip.routeCache());
+            }
         } catch (IllegalArgumentException excp) {
             System.err.printf("trip: %s%n", excp.getMessage());
             System.exit(1);
         }
     }
 
+    /** Serve requests for trips on TRIP from local port PORT, or from
+     *  the standard input if PORT is negative, until the input ends. */
+    private static void serve(Trip trip, int port) {
+        Server server = new Server(trip);
+        try {
+            if (port < 0) {
+                server.serve(System.in, System.out);
+            } else {
+                server.listen(port, System.err);
+            }
+        } catch (IOException excp) {
+            error(excp.getMessage());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    /** Report on the standard output the trips on TRIP requested in the
+     *  file named NAME, or on the standard input if NAME is "-". */
+    private static void batch(Trip trip, String name) {
+        try (BufferedReader requests = new BufferedReader(
+                 name.equals("-") ? new InputStreamReader(System.in)
+                 : new FileReader(name))) {
+            Writer out =
+                new BufferedWriter(new OutputStreamWriter(System.out),
+                                   OUTPUT_BUFFER_SIZE);
+            trip.makeTrips(requests, out);
+        } catch (IOException excp) {
+            error(excp.getMessage());
+        }
+    }
+
+    /** Returns the port requested by the -s argument ARG, or -1 for the
+     *  standard input, exiting with a usage message if it is neither
+     *  "-" nor a port number. */
+    private static int port(String arg) {
+        if (arg.equals("-")) {
+            return -1;
+        }
+        try {
+            int port = Integer.parseInt(arg);
+            if (port >= 0 && port <= MAX_PORT) {
+                return port;
+            }
+        } catch (NumberFormatException excp) {
+            /* Fall through to usage. */
+        }
+        usage();
+        return 0;
+    }
+
+    /** Largest port number. */
+    private static final int MAX_PORT = 65535;
+    /** Size of the buffer for batch output. */
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+
+    /** Returns the count requested by an option's argument ARG, exiting
+     *  with a usage message if it is not a positive integer. */
+    private static int count(String arg) {
+        try {
+            int k = Integer.parseInt(arg);
+            if (k > 0) {
+                return k;
+            }
+        } catch (NumberFormatException excp) {
+            /* Fall through to usage. */
+        }
+        usage();
+        return 0;
+    }
 
     /** Set System.in to read from INFILE, if non-null; otherwise, leaves
      *  System.in unchanged.  Set System.out to go to OUTFILE, if non-null;
@@ -77,7 +215,8 @@ public final class Main {
     /** Print a brief usage message and exit program abnormally. */
     private static void usage() {
         System.err.printf("Usage: java trip.Main [ -m MAPFILE ] [ -o OUTFILE ]"
-                          + " [ REQUESTFILE ]%n");
+                          + " [ -c IMAGE ] [ -s PORT | -b BATCHFILE ] [ -p ]"
+                          + " [ -l K ] [ -r N ] [ -v ] [ REQUESTFILE ]%n");
         System.exit(1);
     }
 
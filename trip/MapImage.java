@@ -0,0 +1,337 @@
+package trip;
+
+import graph.CsrGraph;
+import graph.Graph;
+import graph.LabeledGraph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/** A map compiled into a binary image, which loads without parsing and
+ *  holds its roads in flat tables rather than as Road objects.
+ *
+ *  An image holds, in order (all numbers big-endian):
+ *      a header of the words MAGIC and VERSION, the numbers N of
+ *          locations, M of (one-way) roads, and R of distinct road
+ *          names, a zero word, and the scale of straight-line distances
+ *          described in Trip;
+ *      the x coordinates, y coordinates, and lengths of the roads, as
+ *          N, N, and M doubles;
+ *      the road table, as N + 2 words of row starts, M words of road
+ *          ends, and M words of road-name numbers, as for
+ *          CsrGraph.fromRows;
+ *      the directions of the roads, as M bytes of Direction ordinals;
+ *      the N location names and R road names, each as a word giving
+ *          its length followed by its UTF-8 bytes;
+ *      the CRC-32 checksum of everything before it, as a long.
+ *  Locations are numbered from 1.  The doubles come first to keep them
+ *  aligned.  Loading maps the file into memory, copies the road table
+ *  and coordinates into arrays for searching, and reads the lengths,
+ *  names, and directions of roads directly from the mapped file.
+ *  @author tapan.jasthi
+ */
+class MapImage {
+
+    /** Returns true iff the file named NAME starts with the MAGIC word
+     *  of an image. */
+    static boolean isImage(String name) throws IOException {
+        try (DataInputStream inp =
+             new DataInputStream(new FileInputStream(name))) {
+            return inp.readInt() == MAGIC;
+        } catch (EOFException excp) {
+            return false;
+        }
+    }
+
+    /** Write MAP, whose Locations must be numbered 1 .. N, to the file
+     *  named NAME as an image with straight-line distance scale
+     *  SCALE. */
+    static void write(String name, LabeledGraph<Location, Road> map,
+                      double scale) throws IOException {
+        int n = map.maxVertex(), m = map.edgeSize();
+        if (map.vertexSize() != n) {
+            throw new IllegalArgumentException("locations are not numbered"
+                                               + " consecutively");
+        }
+        HashMap<String, Integer> roadNumbers = new HashMap<>();
+        String[] roadNames = new String[m];
+        int[] start = new int[n + 2];
+        int[] target = new int[m];
+        int[] road = new int[m];
+        double[] length = new double[m];
+        byte[] direction = new byte[m];
+        int e;
+        e = 0;
+        for (int v = 1; v <= n; v += 1) {
+            start[v] = e;
+            for (int k = 0; k < map.outDegree(v); k += 1) {
+                int w = map.successor(v, k);
+                Road r = map.getLabel(v, w);
+                Integer number = roadNumbers.get(r.toString());
+                if (number == null) {
+                    number = roadNumbers.size();
+                    roadNumbers.put(r.toString(), number);
+                    roadNames[number] = r.toString();
+                }
+                target[e] = w;
+                road[e] = number;
+                length[e] = r.length();
+                direction[e] = (byte) r.direction().ordinal();
+                e += 1;
+            }
+        }
+        start[n + 1] = e;
+
+        CheckedOutputStream checked =
+            new CheckedOutputStream(new BufferedOutputStream(
+                new FileOutputStream(name)), new CRC32());
+        try (DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(n);
+            out.writeInt(m);
+            out.writeInt(roadNumbers.size());
+            out.writeInt(0);
+            out.writeDouble(scale);
+            for (int v = 1; v <= n; v += 1) {
+                out.writeDouble(map.getLabel(v).x());
+            }
+            for (int v = 1; v <= n; v += 1) {
+                out.writeDouble(map.getLabel(v).y());
+            }
+            for (double d : length) {
+                out.writeDouble(d);
+            }
+            for (int[] words : new int[][] { start, target, road }) {
+                for (int x : words) {
+                    out.writeInt(x);
+                }
+            }
+            out.write(direction);
+            for (int v = 1; v <= n; v += 1) {
+                writeString(out, map.getLabel(v).toString());
+            }
+            for (int i = 0; i < roadNumbers.size(); i += 1) {
+                writeString(out, roadNames[i]);
+            }
+            out.writeLong(checked.getChecksum().getValue());
+        }
+    }
+
+    /** Write S to OUT as its length in UTF-8 bytes followed by those
+     *  bytes. */
+    private static void writeString(DataOutputStream out, String s)
+        throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /** Returns the image in the file named NAME.  Throws IOException if
+     *  it cannot be read, is not an image of the current VERSION, or
+     *  fails its checksum. */
+    static MapImage load(String name) throws IOException {
+        try (FileChannel channel =
+             FileChannel.open(Paths.get(name), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(name + ": map image too large");
+            }
+            ByteBuffer data =
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < HEADER_SIZE + CHECKSUM_SIZE
+                || data.getInt(0) != MAGIC) {
+                throw new IOException(name + ": not a map image");
+            }
+            if (data.getInt(4) != VERSION) {
+                throw new IOException(String.format("%s: map image version"
+                                                    + " %d not supported",
+                                                    name, data.getInt(4)));
+            }
+            int end = (int) size - CHECKSUM_SIZE;
+            CRC32 crc = new CRC32();
+            ByteBuffer body = data.duplicate();
+            body.limit(end);
+            crc.update(body);
+            if (crc.getValue() != data.getLong(end)) {
+                throw new IOException(name + ": map image is corrupt");
+            }
+            data.limit(end);
+            return new MapImage(data);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                 | IllegalArgumentException | NegativeArraySizeException excp) {
+            throw new IOException(name + ": map image is malformed");
+        }
+    }
+
+    /** The image held in DATA, positioned at its start. */
+    private MapImage(ByteBuffer data) {
+        int n = data.getInt(8), m = data.getInt(12), r = data.getInt(16);
+        _scale = data.getDouble(24);
+        data.position(HEADER_SIZE);
+
+        _xs = new double[n + 1];
+        _ys = new double[n + 1];
+        doubles(data, n).get(_xs, 1, n);
+        doubles(data, n).get(_ys, 1, n);
+        _length = doubles(data, m);
+        int[] start = new int[n + 2];
+        int[] target = new int[m];
+        ints(data, n + 2).get(start);
+        ints(data, m).get(target);
+        _road = ints(data, m);
+        _direction = slice(data, m);
+
+        _names = new String[n + 1];
+        for (int v = 1; v <= n; v += 1) {
+            _names[v] = readString(data);
+        }
+        _roadNames = new String[r];
+        for (int i = 0; i < r; i += 1) {
+            _roadNames[i] = readString(data);
+        }
+        if (start[1] != 0 || start[n + 1] != m) {
+            throw new IllegalArgumentException("bad road table");
+        }
+        _start = start;
+        _target = target;
+        _graph = CsrGraph.fromRows(start, target);
+    }
+
+    /** Returns a view of the next LEN bytes of DATA, advancing past
+     *  them. */
+    private static ByteBuffer slice(ByteBuffer data, int len) {
+        ByteBuffer result = data.slice();
+        result.limit(len);
+        data.position(data.position() + len);
+        return result;
+    }
+
+    /** Returns a view of the next LEN doubles of DATA, advancing past
+     *  them. */
+    private static DoubleBuffer doubles(ByteBuffer data, int len) {
+        return slice(data, Double.BYTES * len).asDoubleBuffer();
+    }
+
+    /** Returns a view of the next LEN words of DATA, advancing past
+     *  them. */
+    private static IntBuffer ints(ByteBuffer data, int len) {
+        return slice(data, Integer.BYTES * len).asIntBuffer();
+    }
+
+    /** Returns the string written by writeString at the current
+     *  position of DATA, advancing past it. */
+    private static String readString(ByteBuffer data) {
+        byte[] bytes = new byte[data.getInt()];
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Returns the graph of locations and roads. */
+    Graph graph() {
+        return _graph;
+    }
+
+    /** Returns the number of locations, which are numbered 1 .. N. */
+    int locationCount() {
+        return _names.length - 1;
+    }
+
+    /** Returns the name of location V. */
+    String name(int v) {
+        return _names[v];
+    }
+
+    /** Returns the x coordinates of the locations, indexed by number.
+     *  The array must not be modified. */
+    double[] xs() {
+        return _xs;
+    }
+
+    /** Returns the y coordinates of the locations, indexed by number.
+     *  The array must not be modified. */
+    double[] ys() {
+        return _ys;
+    }
+
+    /** Returns the scale of straight-line distances recorded for the
+     *  map. */
+    double scale() {
+        return _scale;
+    }
+
+    /** Returns the length of the road from U to V. */
+    double length(int u, int v) {
+        return _length.get(road(u, v));
+    }
+
+    /** Returns the name of the road from U to V. */
+    String roadName(int u, int v) {
+        return _roadNames[_road.get(road(u, v))];
+    }
+
+    /** Returns the direction of the road from U to V. */
+    Direction direction(int u, int v) {
+        return DIRECTIONS[_direction.get(road(u, v))];
+    }
+
+    /** Returns the position of the road from U to V in the road
+     *  table.  Rows are short, so they are simply searched.  Throws
+     *  IllegalArgumentException if there is no such road. */
+    private int road(int u, int v) {
+        for (int i = _start[u]; i < _start[u + 1]; i += 1) {
+            if (_target[i] == v) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("no road between locations");
+    }
+
+    /** First word of an image. */
+    static final int MAGIC = 0x5452504d;
+    /** Version of the image format written by write. */
+    static final int VERSION = 1;
+    /** Size in bytes of the header. */
+    private static final int HEADER_SIZE = 32;
+    /** Size in bytes of the trailing checksum. */
+    private static final int CHECKSUM_SIZE = Long.BYTES;
+    /** The Directions, indexed by ordinal. */
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /** The locations and roads. */
+    private final Graph _graph;
+    /** The road table: the roads from v end at _target[_start[v] ..
+     *  _start[v + 1] - 1]. */
+    private final int[] _start, _target;
+    /** Indexed by position in the road table: the lengths, road-name
+     *  numbers, and Direction ordinals of the roads. */
+    private final DoubleBuffer _length;
+    /** See _length. */
+    private final IntBuffer _road;
+    /** See _length. */
+    private final ByteBuffer _direction;
+    /** Location names, indexed by location number. */
+    private final String[] _names;
+    /** Distinct road names, indexed by road-name number. */
+    private final String[] _roadNames;
+    /** Coordinates, indexed by location number. */
+    private final double[] _xs, _ys;
+    /** See scale. */
+    private final double _scale;
+}
@@ -0,0 +1,260 @@
+package trip;
+
+import java.io.Closeable;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/** A reader of the whitespace-separated tokens of a map file.  It does
+ *  the job of a Scanner for Trip.readMap, reporting missing and
+ *  malformed tokens with the same exceptions, but works directly on a
+ *  large buffer of bytes and converts numbers without creating Strings
+ *  or using regular expressions.
+ *  @author tapan.jasthi
+ */
+class MapReader implements Closeable {
+
+    /** A reader for the file named NAME. */
+    MapReader(String name) throws IOException {
+        _in = new FileInputStream(name);
+    }
+
+    /** Returns the number of entries of each kind in the file named NAME,
+     *  as {locations, roads}, counting the tokens "L" and "R".  This is
+     *  only an estimate for malformed files. */
+    static int[] countEntries(String name) throws IOException {
+        int[] counts = new int[2];
+        try (InputStream in = new FileInputStream(name)) {
+            byte[] buf = new byte[BUFFER_SIZE];
+            int run;
+            run = 0;
+            int first;
+            first = 0;
+            for (int n = in.read(buf); n > 0; n = in.read(buf)) {
+                for (int i = 0; i < n; i += 1) {
+                    if (isSpace(buf[i])) {
+                        count(counts, run, first);
+                        run = 0;
+                    } else {
+                        if (run == 0) {
+                            first = buf[i];
+                        }
+                        run += 1;
+                    }
+                }
+            }
+            count(counts, run, first);
+        }
+        return counts;
+    }
+
+    /** Add a token of length RUN whose first character is FIRST to
+     *  COUNTS, as for countEntries. */
+    private static void count(int[] counts, int run, int first) {
+        if (run == 1 && first == 'L') {
+            counts[0] += 1;
+        } else if (run == 1 && first == 'R') {
+            counts[1] += 1;
+        }
+    }
+
+    /** Returns true iff there is another token. */
+    boolean hasNext() throws IOException {
+        while (fill()) {
+            if (!isSpace(_buf[_pos])) {
+                return true;
+            }
+            _pos += 1;
+        }
+        return false;
+    }
+
+    /** Returns the next token. */
+    String next() throws IOException {
+        readToken();
+        return new String(_token, 0, _length, CHARSET);
+    }
+
+    /** Read the next token and return its character if it is a single
+     *  ASCII character, and otherwise -1. */
+    int nextChar() throws IOException {
+        readToken();
+        return _length == 1 && _token[0] >= 0 ? _token[0] : -1;
+    }
+
+    /** Returns the next token as a double.  Throws
+     *  InputMismatchException if it is not a decimal number. */
+    double nextDouble() throws IOException {
+        readToken();
+        int i;
+        i = 0;
+        boolean negative = _token[0] == '-';
+        if (negative || _token[0] == '+') {
+            i += 1;
+        }
+        long mantissa;
+        mantissa = 0;
+        int digits, scale, start;
+        digits = scale = 0;
+        start = i;
+        boolean point = false;
+        for (; i < _length; i += 1) {
+            int c = _token[i];
+            if (c == '.' && !point) {
+                point = true;
+            } else if (c >= '0' && c <= '9') {
+                if (mantissa == 0 && c == '0') {
+                    scale -= point ? 1 : 0;
+                } else if (digits < MAX_DIGITS) {
+                    mantissa = 10 * mantissa + (c - '0');
+                    digits += 1;
+                    scale -= point ? 1 : 0;
+                } else {
+                    digits += 1;
+                    scale += point ? 0 : 1;
+                }
+            } else {
+                break;
+            }
+        }
+        int mantissaEnd = i;
+        if (mantissaEnd == start || (point && mantissaEnd == start + 1)) {
+            return special();
+        }
+        if (i < _length && (_token[i] == 'e' || _token[i] == 'E')) {
+            i += 1;
+            boolean negExp = i < _length && _token[i] == '-';
+            if (i < _length && (_token[i] == '-' || _token[i] == '+')) {
+                i += 1;
+            }
+            if (i == _length) {
+                throw new InputMismatchException();
+            }
+            int exp;
+            exp = 0;
+            for (; i < _length; i += 1) {
+                int c = _token[i];
+                if (c < '0' || c > '9') {
+                    throw new InputMismatchException();
+                }
+                exp = Math.min(10 * exp + (c - '0'), MAX_EXPONENT);
+            }
+            scale += negExp ? -exp : exp;
+        }
+        if (i != _length) {
+            throw new InputMismatchException();
+        }
+
+        if (digits > MAX_DIGITS || Math.abs(scale) >= POWERS.length) {
+            return Double.parseDouble(new String(_token, 0, _length,
+                                                 CHARSET));
+        }
+        double value = mantissa;
+        if (scale >= 0) {
+            value *= POWERS[scale];
+        } else {
+            value /= POWERS[-scale];
+        }
+        return negative ? -value : value;
+    }
+
+    /** Returns the value of the current token if it is one of the words
+     *  that Scanner accepts for special doubles, and otherwise throws
+     *  InputMismatchException. */
+    private double special() {
+        String word = new String(_token, 0, _length, CHARSET);
+        switch (word) {
+        case "NaN":
+            return Double.NaN;
+        case "Infinity": case "+Infinity":
+            return Double.POSITIVE_INFINITY;
+        case "-Infinity":
+            return Double.NEGATIVE_INFINITY;
+        default:
+            throw new InputMismatchException(word);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        _in.close();
+    }
+
+    /** Copy the next token into _token[0 .. _length-1].  Throws
+     *  NoSuchElementException if there is none. */
+    private void readToken() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        _length = 0;
+        while (fill() && !isSpace(_buf[_pos])) {
+            int end;
+            for (end = _pos; end < _limit && !isSpace(_buf[end]);
+                 end += 1) {
+                continue;
+            }
+            int n = end - _pos;
+            if (_length + n > _token.length) {
+                _token = Arrays.copyOf(_token,
+                                       Math.max(_length + n,
+                                                2 * _token.length));
+            }
+            System.arraycopy(_buf, _pos, _token, _length, n);
+            _length += n;
+            _pos = end;
+        }
+    }
+
+    /** Make sure that _buf has an unread byte, if any remain, and return
+     *  true iff it does. */
+    private boolean fill() throws IOException {
+        if (_pos < _limit) {
+            return true;
+        }
+        _pos = 0;
+        _limit = Math.max(0, _in.read(_buf));
+        return _limit > 0;
+    }
+
+    /** Returns true iff B is a whitespace character, as for
+     *  Character.isWhitespace. */
+    private static boolean isSpace(byte b) {
+        return b == ' ' || (b >= '\t' && b <= '\r')
+            || (b >= 0x1c && b <= 0x1f);
+    }
+
+    /** Size of the input buffer. */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /** Most significant digits kept exactly in a mantissa.  Integers
+     *  with this many digits are exact as doubles. */
+    private static final int MAX_DIGITS = 15;
+    /** Bound on the exponents of numbers, beyond which all doubles are 0
+     *  or infinite. */
+    private static final int MAX_EXPONENT = 100000;
+    /** Powers of ten that are exact as doubles.  Multiplying or dividing
+     *  an exact mantissa by one of them rounds correctly. */
+    private static final double[] POWERS = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /** Encoding of names, the same as that of a FileReader. */
+    private static final Charset CHARSET = Charset.defaultCharset();
+
+    /** The file being read. */
+    private final InputStream _in;
+    /** Input buffer, holding unread bytes in _buf[_pos .. _limit-1]. */
+    private final byte[] _buf = new byte[BUFFER_SIZE];
+    /** See _buf. */
+    private int _pos, _limit;
+    /** The current token, in _token[0 .. _length-1]. */
+    private byte[] _token = new byte[INITIAL_TOKEN];
+    /** See _token. */
+    private int _length;
+
+    /** Initial length of _token. */
+    private static final int INITIAL_TOKEN = 64;
+}
@@ -0,0 +1,93 @@
+package trip;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** A bounded cache of planned routes, keyed by their starting and ending
+ *  vertices, which discards the least recently used route when full.
+ *  Each route is stored as the array of its vertices, which must not be
+ *  modified once cached.  The routes are for one version of a map,
+ *  identified by its modification count; presenting a different count
+ *  empties the cache.  Any number of threads may use it at once.
+ *  @author tapan.jasthi
+ */
+class RouteCache {
+
+    /** An empty cache holding at most CAPACITY routes. */
+    RouteCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        _capacity = capacity;
+        _routes = new LinkedHashMap<Long, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> e) {
+                return size() > _capacity;
+            }
+        };
+    }
+
+    /** Returns the cached route from FROM to TO on version VERSION of
+     *  the map, or null if there is none. */
+    synchronized int[] get(int from, int to, int version) {
+        check(version);
+        int[] route = _routes.get(key(from, to));
+        if (route == null) {
+            _misses += 1;
+        } else {
+            _hits += 1;
+        }
+        return route;
+    }
+
+    /** Cache ROUTE as the route from FROM to TO on version VERSION of
+     *  the map. */
+    synchronized void put(int from, int to, int[] route, int version) {
+        check(version);
+        _routes.put(key(from, to), route);
+    }
+
+    /** Returns the number of calls to get that found a route. */
+    synchronized long hits() {
+        return _hits;
+    }
+
+    /** Returns the number of calls to get that found none. */
+    synchronized long misses() {
+        return _misses;
+    }
+
+    /** Returns the number of routes cached. */
+    synchronized int size() {
+        return _routes.size();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("route cache %d hits, %d misses, %d of %d"
+                             + " routes", _hits, _misses, _routes.size(),
+                             _capacity);
+    }
+
+    /** Discard the cached routes if they are not for VERSION. */
+    private void check(int version) {
+        if (version != _version) {
+            _routes.clear();
+            _version = version;
+        }
+    }
+
+    /** Returns the key for the route from FROM to TO. */
+    private static long key(int from, int to) {
+        return ((long) from << Integer.SIZE) | (to & 0xffffffffL);
+    }
+
+    /** Maximum number of routes. */
+    private final int _capacity;
+    /** The routes, in order from least to most recently used. */
+    private final LinkedHashMap<Long, int[]> _routes;
+    /** The version of the map whose routes are cached. */
+    private int _version;
+    /** Counts of calls to get that did and did not find a route. */
+    private long _hits, _misses;
+}
@@ -0,0 +1,197 @@
+package trip;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** Answers trip requests against one loaded map until stopped, so that
+ *  the map is read only once and later requests run in a warmed-up
+ *  virtual machine.  Each request is a line of location names separated
+ *  by whitespace, and is answered with the report that makeTrip would
+ *  print for them, or with the error message if it fails, followed by a
+ *  line containing only TERMINATOR.  Blank lines are ignored, as in
+ *  batch mode.  The request "stats" is instead answered with the
+ *  latencies of the requests so far, each timed from when its line was
+ *  read, and the counts of the route cache, if there is one.
+ *
+ *  Requests are planned concurrently by a pool with a thread for each
+ *  processor.  Those from one source are answered in the order they
+ *  arrive, but a source may send more requests without waiting for the
+ *  answers.  The map must not be changed while serving.
+ *  @author tapan.jasthi
+ */
+class Server {
+
+    /** Line ending each response. */
+    static final String TERMINATOR = ".";
+    /** The request for latency statistics. */
+    static final String STATS = "stats";
+
+    /** A server for requests on TRIP. */
+    Server(Trip trip) {
+        _trip = trip;
+        _pool = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors());
+    }
+
+    /** Answer requests from IN on OUT until IN is exhausted. */
+    void serve(InputStream in, OutputStream out) throws IOException {
+        BufferedReader inp = new BufferedReader(new InputStreamReader(in));
+        PrintStream result = new PrintStream(out, false);
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        for (String line = inp.readLine(); line != null;
+             line = inp.readLine()) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            String request = line;
+            long received = System.nanoTime();
+            pending.add(_pool.submit(() -> respond(request, received)));
+            while (!pending.isEmpty()
+                   && (pending.peek().isDone() || !inp.ready())) {
+                result.print(await(pending.remove()));
+            }
+            result.flush();
+        }
+        while (!pending.isEmpty()) {
+            result.print(await(pending.remove()));
+        }
+        result.flush();
+    }
+
+    /** Accept connections on local port PORT forever, answering the
+     *  requests on each connection, which may be open at the same time
+     *  as others.  A PORT of 0 chooses any free port.  The port is
+     *  reported on LOG. */
+    void listen(int port, PrintStream log) throws IOException {
+        ExecutorService connections = Executors.newCachedThreadPool();
+        try (ServerSocket listener =
+             new ServerSocket(port, 0, InetAddress.getLoopbackAddress())) {
+            log.printf("trip: listening on port %d%n",
+                       listener.getLocalPort());
+            while (true) {
+                Socket client = listener.accept();
+                connections.execute(() -> {
+                    try (Socket socket = client) {
+                        serve(socket.getInputStream(),
+                              socket.getOutputStream());
+                    } catch (IOException excp) {
+                        /* The client went away; nothing to answer. */
+                    }
+                });
+            }
+        }
+    }
+
+    /** Stop planning requests, once those already received are done. */
+    void shutdown() {
+        _pool.shutdown();
+    }
+
+    /** Returns the response to REQUEST, received at time RECEIVED as
+     *  given by System.nanoTime, including its TERMINATOR line.  The
+     *  latency recorded runs from RECEIVED, so it includes any time the
+     *  request waited for a thread. */
+    String respond(String request, long received) {
+        String response;
+        if (request.trim().equals(STATS)) {
+            response = _latencies + Trip.NL;
+            if (_trip.routeCache() != null) {
+                response += _trip.routeCache() + Trip.NL;
+            }
+        } else {
+            response = _trip.report(request);
+            _latencies.add(System.nanoTime() - received);
+        }
+        return response + TERMINATOR + Trip.NL;
+    }
+
+    /** Returns the value of FUTURE, waiting for it if needed. */
+    private static String await(Future<String> future) {
+        while (true) {
+            try {
+                return future.get();
+            } catch (InterruptedException excp) {
+                /* Keep waiting. */
+            } catch (ExecutionException excp) {
+                return String.format("error: %s%n%s%n", excp.getCause(),
+                                     TERMINATOR);
+            }
+        }
+    }
+
+    /** Latencies of requests, of which the most recent WINDOW are kept
+     *  for computing percentiles. */
+    static class Latencies {
+        /** Record a request that took NANOS nanoseconds. */
+        synchronized void add(long nanos) {
+            _recent[(int) (_count % WINDOW)] = nanos;
+            _count += 1;
+            _total += nanos;
+            _max = Math.max(_max, nanos);
+        }
+
+        /** Returns the number of requests recorded. */
+        synchronized long count() {
+            return _count;
+        }
+
+        /** Returns the P-th percentile, from 0 to 100, of the recent
+         *  latencies in nanoseconds, or 0 if there are none. */
+        synchronized long percentile(double p) {
+            int n = (int) Math.min(_count, WINDOW);
+            if (n == 0) {
+                return 0;
+            }
+            long[] sorted = Arrays.copyOf(_recent, n);
+            Arrays.sort(sorted);
+            int k = (int) Math.ceil(p / 100.0 * n) - 1;
+            return sorted[Math.max(0, Math.min(n - 1, k))];
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("requests %d, mean %.3f ms, median %.3f ms,"
+                                 + " 90%% %.3f ms, 99%% %.3f ms,"
+                                 + " max %.3f ms",
+                                 _count, millis(_count == 0 ? 0
+                                                : _total / _count),
+                                 millis(percentile(50)),
+                                 millis(percentile(90)),
+                                 millis(percentile(99)), millis(_max));
+        }
+
+        /** Returns NANOS in milliseconds. */
+        private static double millis(long nanos) {
+            return nanos / 1e6;
+        }
+
+        /** Number of recent latencies kept. */
+        static final int WINDOW = 1 << 14;
+
+        /** The most recent latencies, in a circular buffer indexed by
+         *  request number modulo WINDOW. */
+        private final long[] _recent = new long[WINDOW];
+        /** Number of requests, and total and largest latency. */
+        private long _count, _total, _max;
+    }
+
+    /** The map being served. */
+    private final Trip _trip;
+    /** Plans requests. */
+    private final ExecutorService _pool;
+    /** Latencies of the requests answered. */
+    private final Latencies _latencies = new Latencies();
+}
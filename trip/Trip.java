@@ -1,17 +1,24 @@
 package trip;
 
 import static trip.Main.error;
+import graph.ContractionHierarchy;
 import graph.DirectedGraph;
+import graph.Graph;
 import graph.LabeledGraph;
+import graph.Landmarks;
+import graph.ShortestPathsWorkspace;
 import graph.SimpleShortestPaths;
 
-import java.io.FileReader;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.Scanner;
+import java.util.stream.IntStream;
 
 /** Encapsulates a map containing sites, positions, and road distances between
  *  them.
@@ -19,20 +26,34 @@ import java.util.Scanner;
  */
 class Trip {
 
-    /** Read map file named NAME into out map graph. */
+    /** Read map file named NAME into out map graph.  If the map is
+     *  empty, it is first sized to fit the file's entries.  NAME may
+     *  instead be an image written by compile, which must then be the
+     *  only map read. */
     void readMap(String name) {
         int n;
         n = 0;
-        try {
-            FileReader fr = new FileReader(name);
-            Scanner inp = new Scanner(fr);
+        try (MapReader inp = new MapReader(name)) {
+            if (MapImage.isImage(name)) {
+                loadImage(name);
+                return;
+            }
+            if (_image != null) {
+                error("error: cannot add to a map image");
+            }
+            if (_map.vertexSize() == 0) {
+                int[] counts = MapReader.countEntries(name);
+                _map = new RoadMap(counts[0], counts[1]);
+                _xs = new double[counts[0] + 1];
+                _ys = new double[counts[0] + 1];
+            }
             while (inp.hasNext()) {
                 n += 1;
-                switch (inp.next()) {
-                case "L":
+                switch (inp.nextChar()) {
+                case 'L':
                     addLocation(inp.next(), inp.nextDouble(), inp.nextDouble());
                     break;
-                case "R":
+                case 'R':
                     addRoad(inp.next(), inp.next(), inp.nextDouble(),
                             Direction.parse(inp.next()), inp.next());
                     break;
@@ -41,7 +62,6 @@ class Trip {
                     break;
                 }
             }
-            inp.close();
         } catch (InputMismatchException excp) {
             error("error: bad entry #%d", n);
         } catch (NoSuchElementException excp) {
@@ -51,40 +71,119 @@ class Trip {
         }
     }
 
-    /** Produce a report on the standard output of a shortest journey from
-     *  DESTS.get(0), then DESTS.get(1), .... */
-    void makeTrip(List<String> dests) {
+    /** Load the image in the file named NAME as the map. */
+    private void loadImage(String name) throws IOException {
+        if (_map.vertexSize() > 0 || _image != null) {
+            error("error: cannot add to a map image");
+        }
+        _image = MapImage.load(name);
+        _xs = _image.xs();
+        _ys = _image.ys();
+        _scale = _image.scale();
+        for (int v = 1; v <= _image.locationCount(); v += 1) {
+            _sites.put(_image.name(v), v);
+        }
+    }
+
+    /** Write the map read so far to the file named NAME as an image,
+     *  which readMap can then load instead of the map files. */
+    void compile(String name) {
+        if (_image != null) {
+            error("error: map is already an image");
+        }
+        try {
+            MapImage.write(name, _map, _scale);
+        } catch (IOException excp) {
+            error(excp.getMessage());
+        }
+    }
+
+    /** Preprocess the map read so far into a contraction hierarchy,
+     *  which makeTrip will then use to plan each leg.  The map must not
+     *  be changed afterwards. */
+    void contract() {
+        _hierarchy = new RouteHierarchy();
+        _hierarchy.contract();
+    }
+
+    /** Choose K landmarks on the map read so far and compute their
+     *  distance tables, which TripPlan will then use to direct its
+     *  searches.  The map must not be changed afterwards. */
+    void useLandmarks(int k) {
+        _landmarks = new RouteLandmarks();
+        _landmarks.selectFarthest(k);
+        _landmarks.compute();
+    }
+
+    /** Keep the last CAPACITY routes planned between pairs of locations
+     *  in a cache, from which makeTrip will reuse them while the map is
+     *  unchanged. */
+    void cacheRoutes(int capacity) {
+        _cache = new RouteCache(capacity);
+    }
+
+    /** Returns the cache set up by cacheRoutes, or null if there is
+     *  none. */
+    RouteCache routeCache() {
+        return _cache;
+    }
+
+    /** Report the number of vertices settled in planning each leg of a
+     *  trip on LOG, or not at all if LOG is null. */
+    void setLog(PrintStream log) {
+        _log = log;
+    }
+
+    /** Append to OUT a report of a shortest journey from DESTS.get(0),
+     *  then DESTS.get(1), ..., each the name of a location or of a point
+     *  as for site.  The legs of the journey are planned
+     *  concurrently, each by a Planner of its own thread, and then
+     *  reported in order.  Any number of threads may make trips at once
+     *  once the map is complete. */
+    void makeTrip(List<String> dests, StringBuilder out) {
         if (dests.size() < 2) {
             error("error: must have at least two locations for a trip");
         }
 
-        System.out.printf("From %s:%n%n", dests.get(0));
-        int step;
+        int[] stops = new int[dests.size()];
+        for (int i = 0; i < stops.length; i += 1) {
+            stops[i] = site(dests.get(i));
+        }
+        out.append("From ").append(locationName(stops[0])).append(":")
+            .append(NL).append(NL);
+
+        int[][] legs = new int[stops.length - 1][];
+        int[] settled = new int[legs.length];
+        IntStream.range(0, legs.length).parallel().forEach(i -> {
+            Planner planner = _planners.get();
+            legs[i] = planner.plan(stops[i], stops[i + 1]);
+            settled[i] = planner.settledCount();
+        });
 
+        int step;
         step = 1;
-        for (int i = 1; i < dests.size(); i += 1) {
-            Integer
-                from = _sites.get(dests.get(i - 1)),
-                to = _sites.get(dests.get(i));
-            if (from == null) {
-                error("error: No location named %s", dests.get(i - 1));
-            } else if (to == null) {
-                error("error: No location named %s", dests.get(i));
-            }
-            TripPlan plan = new TripPlan(from, to);
-            plan.setPaths();
-            List<Integer> segment = plan.pathTo(to);
-            step = reportSegment(step, from, segment);
-        }
-    }
-
-    /** Print out a written description of the location sequence SEGMENT,
-     *  starting at FROM, and numbering the lines of the description starting
-     *  at SEQ.  That is, FROM and each item in SEGMENT are the
-     *  numbers of vertices representing locations.  Together, they
-     *  specify the starting point and vertices along a path where
-     *  each vertex is joined to the next by an edge.  Returns the
-     *  next sequence number.  The format is as described in the
+        for (int i = 0; i < legs.length; i += 1) {
+            if (legs[i].length == 0) {
+                error("error: no route from %s to %s",
+                      locationName(stops[i]), locationName(stops[i + 1]));
+            }
+            if (_log != null) {
+                _log.printf("%s to %s: %d vertices settled%n",
+                            locationName(stops[i]),
+                            locationName(stops[i + 1]), settled[i]);
+            }
+            step = reportSegment(step, stops[i], legs[i], legs[i].length,
+                                 out);
+        }
+    }
+
+    /** Append to OUT a written description of the location sequence
+     *  SEGMENT[0 .. N-1], starting at FROM, and numbering the lines of
+     *  the description starting at SEQ.  That is, FROM and each item
+     *  in SEGMENT are the numbers of vertices representing locations.
+     *  Together, they specify the starting point and vertices along a
+     *  path where each vertex is joined to the next by an edge.
+     *  Returns the next sequence number.  The format is as described in the
      *  project specification.  That is, each line but the last in the
      *  segment is formated like this example:
      *      1. Take University_Ave west for 0.1 miles.
@@ -92,8 +191,9 @@ class Trip {
      *      5. Take I-80 west for 8.4 miles to San_Francisco.
      *  Adjacent roads with the same name and direction are combined.
      *  */
-    int reportSegment(int seq, int from, List<Integer> segment) {
-        if (segment.get(0) != from) {
+    int reportSegment(int seq, int from, int[] segment, int n,
+                      StringBuilder out) {
+        if (n == 0 || segment[0] != from) {
             throw new IllegalArgumentException("invalid starting point");
         }
 
@@ -101,21 +201,22 @@ class Trip {
         String lastDirection = "";
         double distance = 0;
 
-        int k = segment.get(0);
-        for (int i = 1; i < segment.size(); i += 1) {
-            int j = segment.get(i);
+        int k = segment[0];
+        for (int i = 1; i < n; i += 1) {
+            int j = segment[i];
 
-            String roadName = _map.getLabel(k, j).toString();
-            Direction roadDirection = _map.getLabel(k, j).direction();
+            String roadName = roadName(k, j);
+            Direction roadDirection = roadDirection(k, j);
             String directionName = roadDirection.fullName();
-            double segmentDistance = _map.getLabel(k, j).length();
+            double segmentDistance = roadLength(k, j);
 
             if (i > 1) {
                 if (!(lastRoad.equals(roadName))
                         || !(lastDirection.equals(directionName))) {
                     distance = (Math.round((distance * 10))) / 10.0;
-                    System.out.println(seq + ". Take " + lastRoad + " "
-                            + lastDirection + " for " + distance + " miles.");
+                    out.append(seq).append(". Take ").append(lastRoad)
+                        .append(" ").append(lastDirection).append(" for ")
+                        .append(distance).append(" miles.").append(NL);
                     distance = 0;
                     seq += 1;
                 }
@@ -125,15 +226,138 @@ class Trip {
             lastDirection = directionName;
             k = j;
         }
-        String dest = _map.getLabel(k).toString();
+        String dest = locationName(k);
         distance = (Math.round((distance * 10))) / 10.0;
-        System.out.println(seq + ". Take " + lastRoad + " "
-                + lastDirection + " for " + distance
-                + " miles to " + dest + ".");
+        out.append(seq).append(". Take ").append(lastRoad).append(" ")
+            .append(lastDirection).append(" for ").append(distance)
+            .append(" miles to ").append(dest).append(".").append(NL);
 
         return seq + 1;
     }
 
+    /** Returns the location named NAME.  If there is none, and NAME has
+     *  the form @X,Y for finite numbers X and Y, returns instead the
+     *  location nearest the point (X, Y).  Names are tried first, so a
+     *  location whose name starts with "@" is still found by name. */
+    private int site(String name) {
+        Integer v = _sites.get(name);
+        if (v != null) {
+            return v;
+        }
+        if (name.startsWith("@")) {
+            String[] coords = name.substring(1).split(",", -1);
+            try {
+                if (coords.length == 2) {
+                    double x = Double.parseDouble(coords[0]),
+                        y = Double.parseDouble(coords[1]);
+                    if (Double.isFinite(x) && Double.isFinite(y)) {
+                        int w = locationIndex().nearest(x, y);
+                        if (w == 0) {
+                            error("error: No location near %s", name);
+                        }
+                        return w;
+                    }
+                }
+            } catch (NumberFormatException excp) {
+                /* Not a point, so not a known name either. */
+            }
+        }
+        error("error: No location named %s", name);
+        return 0;
+    }
+
+    /** Returns a spatial index of the locations on the map, building it
+     *  if it is missing or the map has changed since it was built. */
+    synchronized LocationIndex locationIndex() {
+        if (_index == null || _indexVersion != _map.modCount()) {
+            Graph G = graph();
+            int[] vertices = new int[G.vertexSize()];
+            int n;
+            n = 0;
+            for (int v : G.vertices()) {
+                vertices[n] = v;
+                n += 1;
+            }
+            _index = new LocationIndex(vertices, _xs, _ys);
+            _indexVersion = _map.modCount();
+        }
+        return _index;
+    }
+
+    /** Returns the graph of locations and roads. */
+    private Graph graph() {
+        return _image == null ? _map : _image.graph();
+    }
+
+    /** Returns the name of location V. */
+    private String locationName(int v) {
+        return _image == null ? _map.getLabel(v).toString() : _image.name(v);
+    }
+
+    /** Returns the name of the road from U to V. */
+    private String roadName(int u, int v) {
+        return _image == null ? _map.getLabel(u, v).toString()
+            : _image.roadName(u, v);
+    }
+
+    /** Returns the direction of the road from U to V. */
+    private Direction roadDirection(int u, int v) {
+        return _image == null ? _map.getLabel(u, v).direction()
+            : _image.direction(u, v);
+    }
+
+    /** Returns the length of the road from U to V. */
+    private double roadLength(int u, int v) {
+        return _image == null ? _map.getLabel(u, v).length()
+            : _image.length(u, v);
+    }
+
+    /** Returns the report that makeTrip makes for REQUEST, a line of
+     *  location names separated by whitespace, or the message of the
+     *  error that it throws, followed by a line end. */
+    String report(String request) {
+        StringBuilder out = new StringBuilder();
+        try {
+            makeTrip(Arrays.asList(request.trim().split("\\s+")), out);
+        } catch (IllegalArgumentException excp) {
+            out.setLength(0);
+            out.append(excp.getMessage()).append(NL);
+        }
+        return out.toString();
+    }
+
+    /** Write to OUT the report for each nonblank line of REQUESTS, as
+     *  for report, in order.  The requests are planned in parallel, up to
+     *  BATCH_SIZE at a time, each using the Planner of the thread that
+     *  takes it. */
+    void makeTrips(BufferedReader requests, Writer out) throws IOException {
+        String[] lines = new String[BATCH_SIZE],
+            reports = new String[BATCH_SIZE];
+        while (true) {
+            int n;
+            n = 0;
+            for (String line = requests.readLine(); line != null;
+                 line = requests.readLine()) {
+                if (!line.trim().isEmpty()) {
+                    lines[n] = line;
+                    n += 1;
+                    if (n == BATCH_SIZE) {
+                        break;
+                    }
+                }
+            }
+            if (n == 0) {
+                break;
+            }
+            IntStream.range(0, n).parallel()
+                .forEach(i -> reports[i] = report(lines[i]));
+            for (int i = 0; i < n; i += 1) {
+                out.write(reports[i]);
+            }
+        }
+        out.flush();
+    }
+
     /** Add a new location named NAME at (X, Y). */
     private void addLocation(String name, double x, double y) {
         if (_sites.containsKey(name)) {
@@ -141,6 +365,12 @@ class Trip {
         }
         int v = _map.add(new Location(name, x, y));
         _sites.put(name, v);
+        if (v >= _xs.length) {
+            _xs = Arrays.copyOf(_xs, Math.max(v + 1, 2 * _xs.length));
+            _ys = Arrays.copyOf(_ys, _xs.length);
+        }
+        _xs[v] = x;
+        _ys[v] = y;
     }
 
     /** Add a stretch of road named NAME from the Location named FROM
@@ -158,43 +388,246 @@ class Trip {
             error("error: location %s not defined", to);
         }
 
+        double dx = _xs[v0] - _xs[v1], dy = _ys[v0] - _ys[v1];
+        double straight = Math.sqrt(dx * dx + dy * dy);
+        if (straight > 0) {
+            _scale = Math.min(_scale, length / straight);
+        }
         _map.add(v0, v1, new Road(name, dir, length));
         _map.add(v1, v0, new Road(name, dir.reverse(), length));
     }
 
     /** Represents the network of Locations and Roads. */
     private RoadMap _map = new RoadMap();
+    /** The map loaded from an image, which then replaces _map, or
+     *  null. */
+    private MapImage _image;
     /** Mapping of Location names to corresponding map vertices. */
     private HashMap<String, Integer> _sites = new HashMap<>();
+    /** The search state of each thread planning legs on _map. */
+    private final ThreadLocal<Planner> _planners =
+        ThreadLocal.withInitial(Planner::new);
+    /** The contraction hierarchy for _map, or null if it has not been
+     *  built. */
+    private RouteHierarchy _hierarchy;
+    /** Indexed by vertex number: the coordinates of each Location in
+     *  _map, kept here so that estimating distances touches no labels. */
+    private double[] _xs = new double[INITIAL_LENGTH],
+        _ys = new double[INITIAL_LENGTH];
+    /** The smallest ratio of a road's length to the straight-line
+     *  distance between its ends, or infinity if there are no roads.
+     *  Scaling straight-line distances by it gives estimates that
+     *  never exceed road distances, even if map coordinates are not in
+     *  miles. */
+    private double _scale = Double.POSITIVE_INFINITY;
+    /** Where to report search statistics, or null. */
+    private PrintStream _log;
+    /** Landmark tables for _map, or null if they have not been
+     *  computed. */
+    private RouteLandmarks _landmarks;
+    /** Recently planned routes, or null if they are not cached. */
+    private RouteCache _cache;
+    /** Spatial index of the locations, or null if it has not been
+     *  built. */
+    private LocationIndex _index;
+    /** The modification count of _map when _index was built. */
+    private int _indexVersion;
+
+    /** Initial length of growable arrays. */
+    private static final int INITIAL_LENGTH = 64;
+    /** The route returned by Planner.plan when there is none. */
+    private static final int[] NO_ROUTE = new int[0];
+    /** Number of requests read ahead and planned together by
+     *  makeTrips. */
+    private static final int BATCH_SIZE = 4096;
+    /** Line ending used in reports. */
+    static final String NL = System.lineSeparator();
 
     /** A labeled directed graph of Locations whose edges are labeled by
-     *  Roads. */
+     *  Roads.  It counts the changes to its vertices, edges, and Roads,
+     *  so that routes planned on it can be recognized as out of date. */
     private static class RoadMap extends LabeledGraph<Location, Road> {
         /** An empty RoadMap. */
         RoadMap() {
             super(new DirectedGraph());
         }
+
+        /** An empty RoadMap with room for LOCATIONS Locations and ROADS
+         *  two-way Roads before its tables must grow. */
+        RoadMap(int locations, int roads) {
+            super(new DirectedGraph(locations, 2 * roads),
+                  locations, 2 * roads);
+        }
+
+        /** Returns the number of changes made to me so far. */
+        int modCount() {
+            return _modCount;
+        }
+
+        @Override
+        public int add() {
+            _modCount += 1;
+            return super.add();
+        }
+
+        @Override
+        public int add(int u, int v) {
+            _modCount += 1;
+            return super.add(u, v);
+        }
+
+        @Override
+        public void setLabel(int u, int v, Road road) {
+            _modCount += 1;
+            super.setLabel(u, v, road);
+        }
+
+        @Override
+        public void remove(int v) {
+            _modCount += 1;
+            super.remove(v);
+        }
+
+        @Override
+        public void removeAll(int[] vertices) {
+            _modCount += 1;
+            super.removeAll(vertices);
+        }
+
+        @Override
+        public void remove(int u, int v) {
+            _modCount += 1;
+            super.remove(u, v);
+        }
+
+        /** See modCount. */
+        private int _modCount;
+    }
+
+    /** A contraction hierarchy over _map, weighted by road length. */
+    private class RouteHierarchy extends ContractionHierarchy {
+        /** A hierarchy, not yet contracted, for _map. */
+        RouteHierarchy() {
+            super(graph());
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            return roadLength(u, v);
+        }
+    }
+
+    /** Landmark tables for _map, weighted by road length. */
+    private class RouteLandmarks extends Landmarks {
+        /** Empty tables for _map. */
+        RouteLandmarks() {
+            super(graph());
+        }
+
+        @Override
+        protected double getWeight(int u, int v) {
+            return roadLength(u, v);
+        }
+    }
+
+    /** The state needed to plan legs on _map, for use by one thread at
+     *  a time. */
+    private class Planner {
+        /** Returns the vertices of a shortest path from FROM to TO, or
+         *  an empty array if there is none.  The result must not be
+         *  modified.  Uses the cached route, if there is one, and
+         *  otherwise the contraction hierarchy, if it has been built.
+         *  Only routes that exist are cached. */
+        int[] plan(int from, int to) {
+            int version = _map.modCount();
+            if (_cache != null) {
+                int[] route = _cache.get(from, to, version);
+                if (route != null) {
+                    _settled = 0;
+                    return route;
+                }
+            }
+            int n;
+            if (_hierarchy != null) {
+                if (_query == null) {
+                    _query = _hierarchy.new Query();
+                }
+                _query.setPaths(from, to);
+                _settled = _query.settledCount();
+                n = _query.pathTo(_path);
+                if (n > _path.length) {
+                    _path = new int[n];
+                    _query.pathTo(_path);
+                }
+            } else {
+                if (_workspace == null) {
+                    _workspace = new ShortestPathsWorkspace(graph());
+                }
+                TripPlan plan = new TripPlan(from, to, _workspace);
+                plan.setPathsBidirectional();
+                _settled = plan.settledCount();
+                n = plan.pathTo(to, _path);
+                if (n > _path.length) {
+                    _path = new int[n];
+                    plan.pathTo(to, _path);
+                }
+            }
+            if (n == 0) {
+                return NO_ROUTE;
+            }
+            int[] route = Arrays.copyOf(_path, n);
+            if (_cache != null) {
+                _cache.put(from, to, route, version);
+            }
+            return route;
+        }
+
+        /** Returns the number of vertices settled by the last call to
+         *  plan. */
+        int settledCount() {
+            return _settled;
+        }
+
+        /** Search storage for TripPlans, created on first use. */
+        private ShortestPathsWorkspace _workspace;
+        /** Search state for queries against _hierarchy, created on first
+         *  use. */
+        private ContractionHierarchy.Query _query;
+        /** Buffer receiving paths. */
+        private int[] _path = new int[INITIAL_LENGTH];
+        /** Number of vertices settled by the last search. */
+        private int _settled;
     }
 
     /** Paths in _map from a given location. */
     private class TripPlan extends SimpleShortestPaths {
-        /** A plan for travel from START to DEST according to _map. */
-        TripPlan(int start, int dest) {
-            super(_map, start, dest);
-            _finalLocation = _map.getLabel(dest);
+        /** A plan for travel from START to DEST according to _map,
+         *  searched using WORKSPACE. */
+        TripPlan(int start, int dest, ShortestPathsWorkspace workspace) {
+            super(graph(), start, dest, workspace);
+            _destX = _xs[dest];
+            _destY = _ys[dest];
+            _destScale = _scale == Double.POSITIVE_INFINITY ? 0.0 : _scale;
         }
 
         @Override
         protected double getWeight(int u, int v) {
-            return _map.getLabel(u, v).length();
+            return roadLength(u, v);
         }
 
         @Override
         protected double estimatedDistance(int v) {
-            return _map.getLabel(v).distance();
+            double dx = _xs[v] - _destX, dy = _ys[v] - _destY;
+            double d = _destScale * Math.sqrt(dx * dx + dy * dy);
+            if (_landmarks != null) {
+                d = Math.max(d, _landmarks.lowerBound(v, getDest()));
+            }
+            return d;
         }
 
-        /** Location of the destination. */
-        private final Location _finalLocation;
+        /** Coordinates of the destination. */
+        private final double _destX, _destY;
+        /** The value of _scale when I was created. */
+        private final double _destScale;
     }
 }
@@ -5,12 +5,27 @@ package trip;
  * may not be part of your trip package per se (that is, it must be
  * possible to remove them and still have your package work). */
 
+import graph.DirectedGraph;
+import graph.LabeledGraph;
 import org.junit.Test;
 import ucb.junit.textui;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 /** Unit tests for the trip package. */
 public class UnitTest {
@@ -57,4 +72,218 @@ public class UnitTest {
                 + "1. Take 2  to 3 for 1.0 miles.\n"
                 + "2. Take 3  to 4 for 1.0 miles.\n");
     }
+
+    @Test
+    public void mapReaderTest() throws IOException {
+        String file = mapFile("L Berkeley -6736.99 2613.16\n"
+                              + "\tR  xy 0.3196 1e2 .5\n1.2.3");
+        try (MapReader inp = new MapReader(file)) {
+            assertEquals('L', inp.nextChar());
+            assertEquals("Berkeley", inp.next());
+            assertEquals(-6736.99, inp.nextDouble(), 0.0);
+            assertEquals(2613.16, inp.nextDouble(), 0.0);
+            assertEquals('R', inp.nextChar());
+            assertEquals(-1, inp.nextChar());
+            assertEquals(0.3196, inp.nextDouble(), 0.0);
+            assertEquals(100.0, inp.nextDouble(), 0.0);
+            assertEquals(0.5, inp.nextDouble(), 0.0);
+            try {
+                inp.nextDouble();
+                fail("expected InputMismatchException");
+            } catch (InputMismatchException excp) {
+                /* Expected. */
+            }
+            assertEquals(false, inp.hasNext());
+            try {
+                inp.next();
+                fail("expected NoSuchElementException");
+            } catch (NoSuchElementException excp) {
+                /* Expected. */
+            }
+        }
+        assertEquals(1, MapReader.countEntries(file)[0]);
+        assertEquals(1, MapReader.countEntries(file)[1]);
+    }
+
+    @Test
+    public void mapImageTest() throws IOException {
+        LabeledGraph<Location, Road> map =
+            new LabeledGraph<>(new DirectedGraph());
+        int a = map.add(new Location("A", 0.0, 1.0)),
+            b = map.add(new Location("B", 3.0, 5.0)),
+            c = map.add(new Location("C", -1.5, 2.0));
+        map.add(a, b, new Road("Main_St", Direction.WE, 5.5));
+        map.add(b, a, new Road("Main_St", Direction.EW, 5.5));
+        map.add(b, c, new Road("Oak_Ave", Direction.NS, 2.25));
+        File file = File.createTempFile("map", ".img");
+        file.deleteOnExit();
+        MapImage.write(file.getPath(), map, 1.1);
+
+        assertEquals(true, MapImage.isImage(file.getPath()));
+        MapImage image = MapImage.load(file.getPath());
+        assertEquals(3, image.locationCount());
+        assertEquals("C", image.name(c));
+        assertEquals(3.0, image.xs()[b], 0.0);
+        assertEquals(2.0, image.ys()[c], 0.0);
+        assertEquals(1.1, image.scale(), 0.0);
+        assertEquals(3, image.graph().edgeSize());
+        assertEquals(true, image.graph().contains(b, c));
+        assertEquals(false, image.graph().contains(c, b));
+        assertEquals(5.5, image.length(b, a), 0.0);
+        assertEquals("Oak_Ave", image.roadName(b, c));
+        assertEquals(Direction.EW, image.direction(b, a));
+
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(40);
+            int b0 = out.readByte();
+            out.seek(40);
+            out.writeByte(~b0);
+        }
+        try {
+            MapImage.load(file.getPath());
+            fail("expected IOException");
+        } catch (IOException excp) {
+            /* Expected. */
+        }
+    }
+
+    @Test
+    public void serverTest() throws IOException {
+        Trip trip = tripOn("L A 0 0\nL B 0 3\nL C 9 9\n"
+                           + "R A Elm 3.0 SN B\n");
+        Server server = new Server(trip);
+        long now = System.nanoTime();
+        assertEquals("From A:" + NL + NL
+                     + "1. Take Elm north for 3.0 miles to B." + NL
+                     + "." + NL, server.respond(" A  B ", now));
+        assertEquals("error: No location named D" + NL + "." + NL,
+                     server.respond("A D", now));
+        assertEquals("error: no route from A to C" + NL + "." + NL,
+                     server.respond("A C", now));
+        assertEquals(true, server.respond("stats", now)
+                     .startsWith("requests 3,"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        server.serve(new ByteArrayInputStream("A B\n\n  \nA D\n"
+                                              .getBytes()), out);
+        assertEquals("From A:" + NL + NL
+                     + "1. Take Elm north for 3.0 miles to B." + NL
+                     + "." + NL + "error: No location named D" + NL
+                     + "." + NL, out.toString());
+        assertEquals(true, server.respond("stats", now)
+                     .startsWith("requests 5,"));
+        server.shutdown();
+    }
+
+    @Test
+    public void batchTest() throws IOException {
+        Trip trip = tripOn("L A 0 0\nL B 0 3\nL C 4 3\nL E 9 9\n"
+                           + "R A Elm 3.0 SN B\nR B Oak 4.0 WE C\n");
+        StringWriter out = new StringWriter();
+        trip.makeTrips(new BufferedReader(new StringReader("C A\n\nA D\n"
+                                                           + "B E\n"
+                                                           + "A B C\n")),
+                       out);
+        assertEquals("From C:" + NL + NL
+                     + "1. Take Oak west for 4.0 miles." + NL
+                     + "2. Take Elm south for 3.0 miles to A." + NL
+                     + "error: No location named D" + NL
+                     + "error: no route from B to E" + NL
+                     + "From A:" + NL + NL
+                     + "1. Take Elm north for 3.0 miles to B." + NL
+                     + "2. Take Oak east for 4.0 miles to C." + NL,
+                     out.toString());
+    }
+
+    @Test
+    public void routeCacheTest() {
+        RouteCache cache = new RouteCache(2);
+        int[] r12 = { 1, 2 }, r13 = { 1, 3 }, r21 = { 2, 1 };
+        assertEquals(null, cache.get(1, 2, 0));
+        cache.put(1, 2, r12, 0);
+        cache.put(1, 3, r13, 0);
+        assertEquals(r12, cache.get(1, 2, 0));
+        cache.put(2, 1, r21, 0);
+        assertEquals(null, cache.get(1, 3, 0));
+        assertEquals(r12, cache.get(1, 2, 0));
+        assertEquals(r21, cache.get(2, 1, 0));
+        assertEquals(2, cache.size());
+        assertEquals(null, cache.get(1, 2, 1));
+        assertEquals(0, cache.size());
+        assertEquals(3, cache.hits());
+        assertEquals(3, cache.misses());
+    }
+
+    @Test
+    public void unreachableRouteTest() throws IOException {
+        for (int trial = 0; trial < 2; trial += 1) {
+            Trip trip = tripOn("L A 0 0\nL B 0 3\nL C 9 9\n"
+                               + "R A Elm 3.0 SN B\n");
+            if (trial == 1) {
+                trip.contract();
+            }
+            trip.cacheRoutes(4);
+            trip.report("A C");
+            trip.report("A C");
+            assertEquals(0, trip.routeCache().size());
+            assertEquals(2, trip.routeCache().misses());
+            trip.report("A B");
+            assertEquals(1, trip.routeCache().size());
+        }
+    }
+
+    @Test
+    public void locationIndexTest() {
+        double[] xs = { 0, 0, 4, 4, -3, 1, 4 },
+            ys = { 0, 0, 0, 3, 2, -1, 3 };
+        LocationIndex index =
+            new LocationIndex(new int[] { 6, 5, 4, 3, 2, 1 }, xs, ys);
+        assertEquals(6, index.size());
+        assertEquals(1, index.nearest(0.4, 0.1));
+        assertEquals(3, index.nearest(5, 4));
+        assertEquals(4, index.nearest(-10, 5));
+        assertEquals(java.util.Arrays.toString(new int[] { 1, 4, 5 }),
+                     java.util.Arrays.toString(index.within(-1, 0, 3)));
+        assertEquals(0, index.within(10, 10, 1).length);
+        assertEquals(0, new LocationIndex(new int[0], xs, ys)
+                     .nearest(0, 0));
+    }
+
+    @Test
+    public void nearestLocationTest() throws IOException {
+        Trip trip = tripOn("L A 0 0\nL B 0 3\nL @home 0 4\nL @0,3 0 5\n"
+                           + "R A Elm 3.0 SN B\nR B Elm 1.0 SN @home\n"
+                           + "R @home Elm 1.0 SN @0,3\n");
+        assertEquals("From A:" + NL + NL
+                     + "1. Take Elm north for 3.0 miles to B." + NL,
+                     trip.report("@0.5,-1 @-1e1,2.9"));
+        assertEquals("From A:" + NL + NL
+                     + "1. Take Elm north for 5.0 miles to @0,3." + NL,
+                     trip.report("A @0,3"));
+        assertEquals("From B:" + NL + NL
+                     + "1. Take Elm north for 1.0 miles to @home." + NL,
+                     trip.report("B @home"));
+        assertEquals("error: No location named @0.5" + NL,
+                     trip.report("@0.5 B"));
+    }
+
+    /** Returns the name of a temporary file, deleted on exit, containing
+     *  CONTENTS. */
+    private static String mapFile(String contents) throws IOException {
+        File file = File.createTempFile("map", ".txt");
+        file.deleteOnExit();
+        try (Writer out = new FileWriter(file)) {
+            out.write(contents);
+        }
+        return file.getPath();
+    }
+
+    /** Returns a Trip that has read the map file contents MAP. */
+    private static Trip tripOn(String map) throws IOException {
+        Trip trip = new Trip();
+        trip.readMap(mapFile(map));
+        return trip;
+    }
+
+    /** Line ending in reports. */
+    private static final String NL = System.lineSeparator();
 }